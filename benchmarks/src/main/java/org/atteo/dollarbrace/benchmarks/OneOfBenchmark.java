@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.atteo.dollarbrace.benchmarks;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.atteo.dollarbrace.DollarBrace;
+import org.atteo.dollarbrace.EnvironmentPropertyResolver;
+import org.atteo.dollarbrace.OneOfPropertyResolver;
+import org.atteo.dollarbrace.PropertiesPropertyResolver;
+import org.atteo.dollarbrace.PropertyFilter;
+import org.atteo.dollarbrace.PropertyNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link OneOfPropertyResolver} with the {@link LegacyOneOfPropertyResolver original implementation}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks package && java -jar benchmarks/target/benchmarks.jar OneOf}
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OneOfBenchmark {
+	/**
+	 * Index of the first alternative which can be resolved.
+	 */
+	@Param({ "0", "1", "2" })
+	public int matchingAlternative;
+
+	private String template;
+	private PropertyFilter legacyFilter;
+	private PropertyFilter filter;
+
+	@Setup
+	public void setup() {
+		template = "url=${oneof:${sys.service.url},http://${sys.service.host}/,http://localhost/}";
+		Properties properties = new Properties();
+		if (matchingAlternative == 0) {
+			properties.setProperty("sys.service.url", "http://service/");
+		} else if (matchingAlternative == 1) {
+			properties.setProperty("sys.service.host", "service");
+		}
+		PropertiesPropertyResolver propertiesResolver = new PropertiesPropertyResolver(properties);
+		legacyFilter = DollarBrace.getFilter(new LegacyOneOfPropertyResolver(), new EnvironmentPropertyResolver(),
+				propertiesResolver);
+		filter = DollarBrace.getFilter(new OneOfPropertyResolver(), new EnvironmentPropertyResolver(),
+				propertiesResolver);
+	}
+
+	@Benchmark
+	public String legacyOneOf() throws PropertyNotFoundException {
+		return legacyFilter.filter(template);
+	}
+
+	@Benchmark
+	public String oneOf() throws PropertyNotFoundException {
+		return filter.filter(template);
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.atteo.dollarbrace.benchmarks;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.atteo.dollarbrace.DollarBrace;
+import org.atteo.dollarbrace.PropertyFilter;
+import org.atteo.dollarbrace.PropertyNotFoundException;
+import org.atteo.dollarbrace.spi.Tokenizer;
+import org.atteo.dollarbrace.spi.Tokenizer.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link Tokenizer} with the {@link LegacyTokenizer original implementation}.
+ * <p>
+ * Run with: {@code mvn -Pbenchmarks package && java -jar benchmarks/target/benchmarks.jar Tokenizer}
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenizerBenchmark {
+	/**
+	 * Percentage of inputs which contain placeholders.
+	 */
+	@Param({ "0", "10", "100" })
+	public int placeholderPercentage;
+
+	private String[] inputs;
+	private PropertyFilter filter;
+
+	@Setup
+	public void setup() {
+		inputs = new String[100];
+		for (int i = 0; i < inputs.length; i++) {
+			if (i < placeholderPercentage) {
+				inputs[i] = "jdbc:postgresql://${db.host}:${db.port}/database_" + i;
+			} else {
+				inputs[i] = "jdbc:postgresql://localhost:5432/database_" + i;
+			}
+		}
+		Properties properties = new Properties();
+		properties.setProperty("db.host", "localhost");
+		properties.setProperty("db.port", "5432");
+		filter = DollarBrace.getFilter(properties);
+	}
+
+	@Benchmark
+	public int legacyTokenizer() {
+		int count = 0;
+		for (String input : inputs) {
+			List<Token> tokens = LegacyTokenizer.splitIntoTokens(input);
+			count += tokens.size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int tokenizer() {
+		int count = 0;
+		for (String input : inputs) {
+			List<Token> tokens = Tokenizer.splitIntoTokens(input);
+			count += tokens.size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int filter() throws PropertyNotFoundException {
+		int length = 0;
+		for (String input : inputs) {
+			length += filter.filter(input).length();
+		}
+		return length;
+	}
+}
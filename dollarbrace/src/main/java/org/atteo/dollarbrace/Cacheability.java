@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.atteo.dollarbrace;
+
+/**
+ * Describes whether the values returned by {@link PropertyResolver} can be cached.
+ * <p>
+ * Constants are ordered from the most to the least stable one.
+ * </p>
+ * @see CacheablePropertyResolver
+ */
+public enum Cacheability {
+	/**
+	 * The value of the property never changes, it can be resolved once and reused forever.
+	 */
+	CONSTANT,
+	/**
+	 * The value of the property changes only when the underlying source, like {@link java.util.Properties},
+	 * is modified. It can be reused during a single filtering call or whenever a snapshot of the source
+	 * is acceptable.
+	 */
+	SNAPSHOT,
+	/**
+	 * The value of the property can be different every time it is resolved. It must never be reused.
+	 */
+	VOLATILE;
+
+	/**
+	 * Returns the less stable of this and given cacheability.
+	 * @param other other cacheability
+	 * @return less stable cacheability
+	 */
+	public Cacheability or(Cacheability other) {
+		return other.ordinal() > ordinal() ? other : this;
+	}
+
+	/**
+	 * Returns the cacheability of the values returned by given resolver for given property.
+	 * <p>
+	 * Resolvers which do not implement {@link CacheablePropertyResolver} are assumed to be {@link #VOLATILE},
+	 * as nothing is known about the source of their values.
+	 * </p>
+	 * @param resolver property resolver
+	 * @param name name of the property
+	 * @return cacheability of the property value
+	 */
+	public static Cacheability of(PropertyResolver resolver, String name) {
+		if (resolver instanceof VolatilePropertyResolver) {
+			return VOLATILE;
+		}
+		if (resolver instanceof CacheablePropertyResolver) {
+			return ((CacheablePropertyResolver) resolver).getCacheability(name);
+		}
+		return VOLATILE;
+	}
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.atteo.dollarbrace;
+
+/**
+ * Property resolver which declares whether its values can be cached.
+ * <p>
+ * The declaration covers only the resolver itself. When the value is filtered recursively, the cacheability
+ * of the properties it references is taken into account separately.
+ * </p>
+ */
+public interface CacheablePropertyResolver extends PropertyResolver {
+	/**
+	 * Returns the cacheability of the value which this resolver returns for the property with given name.
+	 * @param name name of the property, before it is filtered
+	 * @return cacheability of the property value
+	 */
+	Cacheability getCacheability(String name);
+}
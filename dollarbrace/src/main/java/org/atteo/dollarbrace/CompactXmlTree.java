@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Read-only XML tree stored in arrays.
+ * <p>
+ * Elements are identified by their position in document order. Subtree of the element spans all the positions
+ * from the element up to its {@link #end} position. Text content of the element is a substring of the whole document
+ * text, so it is stored as a pair of offsets. Names and attribute values are interned within the tree.
+ * </p>
+ */
+class CompactXmlTree {
+	private final String[] names;
+	private final int[] end;
+	private final int[] attributesStart;
+	private final String[] attributeNames;
+	private final String[] attributeValues;
+	private final int[] textStart;
+	private final int[] textEnd;
+	private final String text;
+	private final Map<String, int[]> elementsByName;
+
+	private CompactXmlTree(Builder builder) {
+		int count = builder.count;
+		names = Arrays.copyOf(builder.names, count);
+		end = Arrays.copyOf(builder.end, count);
+		attributesStart = Arrays.copyOf(builder.attributesStart, count + 1);
+		attributesStart[count] = builder.attributeCount;
+		attributeNames = Arrays.copyOf(builder.attributeNames, builder.attributeCount);
+		attributeValues = Arrays.copyOf(builder.attributeValues, builder.attributeCount);
+		textStart = Arrays.copyOf(builder.textStart, count);
+		textEnd = Arrays.copyOf(builder.textEnd, count);
+		text = builder.text.toString();
+
+		Map<String, Integer> counts = new HashMap<>();
+		for (String name : names) {
+			Integer previous = counts.get(name);
+			counts.put(name, previous == null ? 1 : previous + 1);
+		}
+		elementsByName = new HashMap<>();
+		for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+			elementsByName.put(entry.getKey(), new int[entry.getValue()]);
+			entry.setValue(0);
+		}
+		for (int i = 0; i < count; i++) {
+			int position = counts.get(names[i]);
+			elementsByName.get(names[i])[position] = i;
+			counts.put(names[i], position + 1);
+		}
+	}
+
+	/**
+	 * Reads XML document from the stream.
+	 * <p>
+	 * DTDs and external entities are not supported, so the document cannot read local files
+	 * or expand entities without bound.
+	 * </p>
+	 */
+	public static CompactXmlTree parse(InputStream stream) throws XMLStreamException {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		XMLStreamReader reader = factory.createXMLStreamReader(stream);
+		try {
+			Builder builder = new Builder();
+			while (reader.hasNext()) {
+				switch (reader.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						builder.startElement(reader);
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						builder.endElement();
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE:
+						builder.text(reader);
+						break;
+				}
+			}
+			if (builder.count == 0) {
+				throw new XMLStreamException("No root element found");
+			}
+			return new CompactXmlTree(builder);
+		} finally {
+			reader.close();
+		}
+	}
+
+	public String getName(int element) {
+		return names[element];
+	}
+
+	/**
+	 * Returns the value of the attribute, or null if the element does not have such attribute.
+	 */
+	public String getAttribute(int element, String name) {
+		for (int i = attributesStart[element]; i < attributesStart[element + 1]; i++) {
+			if (attributeNames[i].equals(name)) {
+				return attributeValues[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the descendant of the element with given name, or -1 if there is none or more than one.
+	 */
+	public int getUniqueDescendant(int element, String name) {
+		int[] elements = elementsByName.get(name);
+		if (elements == null) {
+			return -1;
+		}
+		int from = lowerBound(elements, element + 1);
+		int to = lowerBound(elements, end[element]);
+		if (to - from != 1) {
+			return -1;
+		}
+		return elements[from];
+	}
+
+	/**
+	 * Returns concatenated text of all the descendants of the element.
+	 */
+	public String getTextContent(int element) {
+		return text.substring(textStart[element], textEnd[element]);
+	}
+
+	private static int lowerBound(int[] array, int key) {
+		int index = Arrays.binarySearch(array, key);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	private static class Builder {
+		private final Interner<String> interner = Interners.newStrongInterner();
+		private final StringBuilder text = new StringBuilder();
+		private int[] stack = new int[16];
+		private int depth = 0;
+
+		private int count = 0;
+		private String[] names = new String[16];
+		private int[] end = new int[16];
+		private int[] attributesStart = new int[17];
+		private int[] textStart = new int[16];
+		private int[] textEnd = new int[16];
+
+		private int attributeCount = 0;
+		private String[] attributeNames = new String[16];
+		private String[] attributeValues = new String[16];
+
+		private void startElement(XMLStreamReader reader) {
+			if (count == names.length) {
+				int length = count * 2;
+				names = Arrays.copyOf(names, length);
+				end = Arrays.copyOf(end, length);
+				attributesStart = Arrays.copyOf(attributesStart, length + 1);
+				textStart = Arrays.copyOf(textStart, length);
+				textEnd = Arrays.copyOf(textEnd, length);
+			}
+			if (depth == stack.length) {
+				stack = Arrays.copyOf(stack, depth * 2);
+			}
+			int element = count++;
+			stack[depth++] = element;
+			names[element] = interner.intern(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+			textStart[element] = text.length();
+			attributesStart[element] = attributeCount;
+
+			// non-namespace-aware DOM reports namespace declarations as attributes
+			for (int i = 0; i < reader.getNamespaceCount(); i++) {
+				String prefix = reader.getNamespacePrefix(i);
+				addAttribute(prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix,
+						reader.getNamespaceURI(i));
+			}
+			for (int i = 0; i < reader.getAttributeCount(); i++) {
+				addAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+						reader.getAttributeValue(i));
+			}
+		}
+
+		private void addAttribute(String name, String value) {
+			if (attributeCount == attributeNames.length) {
+				attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+				attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+			}
+			attributeNames[attributeCount] = interner.intern(name);
+			attributeValues[attributeCount] = interner.intern(value);
+			attributeCount++;
+		}
+
+		private void endElement() {
+			int element = stack[--depth];
+			end[element] = count;
+			textEnd[element] = text.length();
+		}
+
+		private void text(XMLStreamReader reader) {
+			if (depth > 0) {
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			}
+		}
+
+		private static String qualifiedName(String prefix, String localName) {
+			if (prefix == null || prefix.isEmpty()) {
+				return localName;
+			}
+			return prefix + ":" + localName;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.atteo.dollarbrace;
+
+/**
+ * Template {@link DollarBrace#compile(PropertyFilter, String) compiled} for repeated filtering.
+ * <p>
+ * Values of all the properties except the {@link Cacheability#VOLATILE volatile} ones are taken
+ * when the template is compiled. Compile the template again to pick up changes in the underlying sources.
+ * </p>
+ */
+public interface CompiledTemplate {
+	/**
+	 * Returns true, if the template does not reference any property which needs to be resolved
+	 * during rendering.
+	 * @return true, if the template always renders the same string
+	 */
+	boolean isConstant();
+
+	/**
+	 * Filters the template by resolving properties which were not resolved during compilation.
+	 * @return filtered template
+	 * @throws PropertyNotFoundException when some property could not be resolved
+	 */
+	String render() throws PropertyNotFoundException;
+}
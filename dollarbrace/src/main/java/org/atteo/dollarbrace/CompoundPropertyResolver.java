@@ -13,13 +13,15 @@
  */
 package org.atteo.dollarbrace;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLongArray;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
+import org.atteo.dollarbrace.spi.Tokenizer;
+import org.atteo.dollarbrace.spi.Tracer;
 
 /**
  * Resolves properties by trying a number of underlying {@link PropertyResolver property resolvers}.
@@ -27,12 +29,153 @@ import com.google.common.collect.Multimap;
  * Underlying property resolver can be an instance of {@link PrefixedPropertyResolver}.
  * In this case it will be executed only if its prefix matches property name.
  * If at least one prefixed resolver matches given prefix then only prefixed resolvers
- * matching this prefix will be executed.
+ * matching this prefix will be executed. Prefixes are matched in the order in which they were first registered.
+ * </p>
+ * <p>
+ * {@link SummarizedPropertyResolver Resolvers which can tell} that they do not contain the property
+ * are skipped for the names without placeholders without throwing {@link PropertyNotFoundException}.
+ * </p>
+ * <p>
+ * Resolvers whose properties are not resolved by any other resolver can be added with
+ * {@link #addDisjointPropertyResolver(PropertyResolver)}. When {@link #setAdaptiveOrdering(boolean) adaptive ordering}
+ * is enabled, those of them which resolve the most properties are tried first.
+ * </p>
+ * <p>
+ * Property resolvers can be added while other threads resolve properties. Each resolution sees immutable snapshot
+ * of the resolvers which is replaced atomically when a resolver is added, so resolution does not take any locks.
  * </p>
  */
-public class CompoundPropertyResolver implements PropertyResolver {
-	private final List<PropertyResolver> resolvers = Lists.newArrayList();
-	private final Multimap<String, PrefixedPropertyResolver> prefixedResolvers = ArrayListMultimap.create();
+public class CompoundPropertyResolver implements CacheablePropertyResolver {
+	/**
+	 * Number of hits of a single resolver after which it is checked whether it should be moved
+	 * before the disjoint resolvers with fewer hits.
+	 */
+	private static final int REORDER_INTERVAL = 1024;
+
+	/**
+	 * Immutable set of the resolvers.
+	 */
+	private static final class Snapshot {
+		private static final Snapshot EMPTY = new Snapshot(new PropertyResolver[0], new boolean[0], new String[0],
+				new PrefixedPropertyResolver[0][]);
+
+		private final PropertyResolver[] resolvers;
+		/**
+		 * Whether the non-prefixed resolver was registered as disjoint, only those are moved by adaptive ordering.
+		 */
+		private final boolean[] disjoint;
+		private final String[] prefixes;
+		private final PrefixedPropertyResolver[][] prefixedResolvers;
+		/**
+		 * Number of properties resolved by each of the non-prefixed resolvers, used by adaptive ordering.
+		 */
+		private final AtomicLongArray hits;
+
+		private Snapshot(PropertyResolver[] resolvers, boolean[] disjoint, String[] prefixes,
+				PrefixedPropertyResolver[][] prefixedResolvers) {
+			this.resolvers = resolvers;
+			this.disjoint = disjoint;
+			this.prefixes = prefixes;
+			this.prefixedResolvers = prefixedResolvers;
+			this.hits = new AtomicLongArray(resolvers.length);
+		}
+
+		/**
+		 * Returns the prefixed resolvers matching given property, or null if there are none.
+		 */
+		private PrefixedPropertyResolver[] findPrefixed(String name) {
+			for (int i = 0; i < prefixes.length; i++) {
+				if (name.startsWith(prefixes[i])) {
+					return prefixedResolvers[i];
+				}
+			}
+			return null;
+		}
+
+		private Snapshot withResolver(PropertyResolver resolver, boolean isDisjoint) {
+			PropertyResolver[] newResolvers = Arrays.copyOf(resolvers, resolvers.length + 1);
+			newResolvers[resolvers.length] = resolver;
+			boolean[] newDisjoint = Arrays.copyOf(disjoint, disjoint.length + 1);
+			newDisjoint[disjoint.length] = isDisjoint;
+			return new Snapshot(newResolvers, newDisjoint, prefixes, prefixedResolvers);
+		}
+
+		/**
+		 * Checks whether the disjoint resolver at given index has more hits than some disjoint resolver before it.
+		 */
+		private boolean outranksPreceding(int index, long count) {
+			for (int i = 0; i < index; i++) {
+				if (disjoint[i] && hits.get(i) < count) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Returns the snapshot with the disjoint resolvers sorted by the number of hits, or this snapshot
+		 * if they are already sorted. The other resolvers stay at their positions, so their precedence
+		 * is not changed. The hits are halved when the order changes, so the order follows the recent traffic.
+		 */
+		private Snapshot reordered() {
+			final long[] counts = new long[resolvers.length];
+			List<Integer> movable = new ArrayList<>();
+			for (int i = 0; i < resolvers.length; i++) {
+				counts[i] = hits.get(i);
+				if (disjoint[i]) {
+					movable.add(i);
+				}
+			}
+			List<Integer> sorted = new ArrayList<>(movable);
+			Collections.sort(sorted, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer first, Integer second) {
+					return Long.compare(counts[second], counts[first]);
+				}
+			});
+			int[] order = new int[resolvers.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			if (sorted.equals(movable)) {
+				return this;
+			}
+			for (int i = 0; i < movable.size(); i++) {
+				order[movable.get(i)] = sorted.get(i);
+			}
+			PropertyResolver[] newResolvers = new PropertyResolver[resolvers.length];
+			for (int i = 0; i < order.length; i++) {
+				newResolvers[i] = resolvers[order[i]];
+			}
+			Snapshot snapshot = new Snapshot(newResolvers, disjoint, prefixes, prefixedResolvers);
+			for (int i = 0; i < order.length; i++) {
+				snapshot.hits.set(i, counts[order[i]] / 2);
+			}
+			return snapshot;
+		}
+
+		private Snapshot withPrefixedResolver(String prefix, PrefixedPropertyResolver resolver) {
+			PrefixedPropertyResolver[][] newPrefixedResolvers;
+			for (int i = 0; i < prefixes.length; i++) {
+				if (prefixes[i].equals(prefix)) {
+					newPrefixedResolvers = prefixedResolvers.clone();
+					PrefixedPropertyResolver[] group = Arrays.copyOf(prefixedResolvers[i],
+							prefixedResolvers[i].length + 1);
+					group[group.length - 1] = resolver;
+					newPrefixedResolvers[i] = group;
+					return new Snapshot(resolvers, disjoint, prefixes, newPrefixedResolvers);
+				}
+			}
+			String[] newPrefixes = Arrays.copyOf(prefixes, prefixes.length + 1);
+			newPrefixes[prefixes.length] = prefix;
+			newPrefixedResolvers = Arrays.copyOf(prefixedResolvers, prefixedResolvers.length + 1);
+			newPrefixedResolvers[prefixedResolvers.length] = new PrefixedPropertyResolver[] { resolver };
+			return new Snapshot(resolvers, disjoint, newPrefixes, newPrefixedResolvers);
+		}
+	}
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+	private volatile boolean adaptiveOrdering = false;
 
 	public CompoundPropertyResolver(PropertyResolver... resolvers) {
 		for (PropertyResolver resolver : resolvers) {
@@ -40,42 +183,120 @@ public class CompoundPropertyResolver implements PropertyResolver {
 		}
 	}
 
+	/**
+	 * Adds property resolver. It is safe to call this method while other threads resolve properties.
+	 * @param resolver property resolver to add
+	 */
 	public final void addPropertyResolver(PropertyResolver resolver) {
+		addPropertyResolver(resolver, false);
+	}
+
+	/**
+	 * Adds property resolver whose properties are not resolved by any other resolver added to this compound
+	 * resolver. Such resolvers can be reordered by {@link #setAdaptiveOrdering(boolean) adaptive ordering}
+	 * without changing the result. It is safe to call this method while other threads resolve properties.
+	 * @param resolver property resolver to add
+	 */
+	public final void addDisjointPropertyResolver(PropertyResolver resolver) {
+		addPropertyResolver(resolver, true);
+	}
+
+	private synchronized void addPropertyResolver(PropertyResolver resolver, boolean disjoint) {
 		if (resolver instanceof PrefixedPropertyResolver) {
 			PrefixedPropertyResolver prefixedResolver = (PrefixedPropertyResolver) resolver;
 			String prefix = prefixedResolver.getPrefix();
 			if (prefix != null) {
-				prefixedResolvers.put(prefixedResolver.getPrefix(), prefixedResolver);
+				snapshot = snapshot.withPrefixedResolver(prefix, prefixedResolver);
 				return;
 			}
 		}
-		resolvers.add(resolver);
+		snapshot = snapshot.withResolver(resolver, disjoint);
+	}
+
+	/**
+	 * Sets whether the resolvers added with {@link #addDisjointPropertyResolver(PropertyResolver)} should be
+	 * reordered based on the number of properties they resolve.
+	 * <p>
+	 * The disjoint resolvers exchange their positions, so the resolver which resolved the most properties
+	 * recently is tried first. The resolvers added with {@link #addPropertyResolver(PropertyResolver)}
+	 * keep their positions, so they still take precedence over the resolvers registered after them.
+	 * </p>
+	 * @param adaptiveOrdering when true, resolvers are periodically reordered
+	 */
+	public void setAdaptiveOrdering(boolean adaptiveOrdering) {
+		this.adaptiveOrdering = adaptiveOrdering;
 	}
 
+	/**
+	 * Returns the least stable cacheability of the resolvers which can be executed for given property.
+	 */
 	@Override
-	public String resolveProperty(String name, PropertyFilter recurse) throws PropertyNotFoundException {
-		for (Entry<String, Collection<PrefixedPropertyResolver>> entry : prefixedResolvers.asMap().entrySet()) {
-			if (name.startsWith(entry.getKey())) {
-				PropertyNotFoundException lastException = null;
-				for (PrefixedPropertyResolver resolver : entry.getValue()) {
-					try {
-						return resolver.resolveProperty(name, recurse);
-					} catch (PropertyNotFoundException e) {
-						lastException = e;
-					}
-				}
-				throw new PropertyNotFoundException(name, lastException);
-			}
+	public Cacheability getCacheability(String name) {
+		Snapshot current = snapshot;
+		PrefixedPropertyResolver[] prefixed = current.findPrefixed(name);
+		if (prefixed != null) {
+			return getCacheability(prefixed, name);
 		}
+		return getCacheability(current.resolvers, name);
+	}
 
-		PropertyNotFoundException lastException = null;
+	private static Cacheability getCacheability(PropertyResolver[] resolvers, String name) {
+		Cacheability cacheability = Cacheability.CONSTANT;
 		for (PropertyResolver resolver : resolvers) {
+			cacheability = cacheability.or(Cacheability.of(resolver, name));
+		}
+		return cacheability;
+	}
+
+	@Override
+	public String resolveProperty(String name, PropertyFilter recurse) throws PropertyNotFoundException {
+		Snapshot current = snapshot;
+		PrefixedPropertyResolver[] prefixed = current.findPrefixed(name);
+		PropertyResolver[] candidates = prefixed != null ? prefixed : current.resolvers;
+
+		boolean plainName = !Tokenizer.hasPlaceholders(name);
+
+		PropertyNotFoundException lastException = null;
+		for (int i = 0; i < candidates.length; i++) {
+			PropertyResolver resolver = candidates[i];
+			String value;
+			DollarBrace.dependsOn(recurse, resolver, name);
+			Tracer.Span span = Tracing.startResolver(name, resolver);
 			try {
-				return resolver.resolveProperty(name, recurse);
+				if (plainName && resolver instanceof SummarizedPropertyResolver) {
+					value = ((SummarizedPropertyResolver) resolver).resolvePropertyIfPresent(name, recurse);
+					if (value == null) {
+						continue;
+					}
+				} else {
+					value = resolver.resolveProperty(name, recurse);
+				}
 			} catch (PropertyNotFoundException e) {
 				lastException = e;
+				continue;
+			} finally {
+				Tracing.close(span);
+			}
+			if (prefixed == null && adaptiveOrdering) {
+				recordHit(current, i);
 			}
+			return value;
 		}
 		throw new PropertyNotFoundException(name, lastException);
 	}
+
+	private void recordHit(Snapshot current, int index) {
+		long hits = current.hits.incrementAndGet(index);
+		if (index > 0 && current.disjoint[index] && hits % REORDER_INTERVAL == 0
+				&& current.outranksPreceding(index, hits)) {
+			reorder(current);
+		}
+	}
+
+	private synchronized void reorder(Snapshot expected) {
+		// do not overwrite the snapshot with added resolvers
+		if (snapshot == expected) {
+			snapshot = expected.reordered();
+		}
+	}
 }
@@ -17,65 +17,212 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 import org.atteo.dollarbrace.spi.Tokenizer;
-import org.w3c.dom.Attr;
+import org.atteo.dollarbrace.spi.Tracer;
 import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Text;
 
 /**
  * Dollar-brace expressions filtering engine.
  */
 public class DollarBrace {
 	/**
-	 * Property filter which throws {@link CircularPropertyResolutionException} when loop occurs.
+	 * Property filter which throws {@link CircularPropertyResolutionException} when loop occurs
+	 * and {@link ResolutionLimitExceededException} when {@link ResolutionLimits limits} are exceeded.
+	 * <p>
+	 * Values of resolved properties, as well as the properties which were not found, are remembered and reused,
+	 * unless the resolution involved {@link Cacheability#VOLATILE volatile} resolver.
+	 * </p>
 	 */
 	private final static class LoopCheckPropertyFilter implements PropertyFilter {
 		private final Set<String> inProgress = new HashSet<>();
+		private final Map<String, String> resolved = new HashMap<>();
+		private final Map<String, PropertyNotFoundException> missing = new HashMap<>();
+		private Cacheability cacheability = Cacheability.CONSTANT;
 		private final PropertyResolver resolver;
+		private final ResolutionLimits limits;
+		private int steps = 0;
+		private long expandedLength = 0;
 
-		private LoopCheckPropertyFilter(PropertyResolver resolver) {
+		private LoopCheckPropertyFilter(PropertyResolver resolver, ResolutionLimits limits) {
 			this.resolver = resolver;
+			this.limits = limits;
 		}
 
 		@Override
 		public String getProperty(String name) throws PropertyNotFoundException {
+			String value = resolved.get(name);
+			if (value != null) {
+				Tracing.close(Tracing.startResolution(name, resolver, inProgress.size(), true));
+				return value;
+			}
+			PropertyNotFoundException miss = missing.get(name);
+			if (miss != null) {
+				Tracing.close(Tracing.startResolution(name, resolver, inProgress.size(), true));
+				throw miss;
+			}
 			if (inProgress.contains(name)) {
 				throw new CircularPropertyResolutionException(name);
 			}
+			if (inProgress.size() >= limits.getMaxDepth()) {
+				throw new ResolutionLimitExceededException("Maximum property resolution depth of "
+						+ limits.getMaxDepth() + " exceeded", name);
+			}
+			if (++steps > limits.getMaxSteps()) {
+				throw new ResolutionLimitExceededException("Maximum number of " + limits.getMaxSteps()
+						+ " property resolutions exceeded", name);
+			}
+			Tracer.Span span = Tracing.startResolution(name, resolver, inProgress.size(), false);
 			inProgress.add(name);
+			Cacheability outerCacheability = cacheability;
+			// compound resolver reports the cacheability of the resolvers it tries
+			cacheability = resolver instanceof CompoundPropertyResolver ? Cacheability.CONSTANT
+					: Cacheability.of(resolver, name);
 
 			try {
-				return resolver.resolveProperty(name, this);
+				value = resolver.resolveProperty(name, this);
+				if (cacheability != Cacheability.VOLATILE) {
+					resolved.put(name, value);
+				}
+				return value;
+			} catch (PropertyNotFoundException e) {
+				if (cacheability != Cacheability.VOLATILE) {
+					missing.put(name, e);
+				}
+				throw e;
 			} finally {
 				inProgress.remove(name);
+				cacheability = cacheability.or(outerCacheability);
+				Tracing.close(span);
 			}
 		}
 
 		@Override
 		public String filter(String value) throws PropertyNotFoundException {
-			List<Tokenizer.Token> parts = Tokenizer.splitIntoTokens(value);
-			StringBuilder result = new StringBuilder();
-
-			for (Tokenizer.Token part : parts) {
-				if (part.isProperty()) {
-					String propertyValue = getProperty(part.getValue());
-					if (propertyValue == null) {
-						throw new PropertyNotFoundException(part.getValue());
-					}
-					result.append(propertyValue);
+			if (!Tokenizer.hasPlaceholders(value)) {
+				return value;
+			}
+			return filter((CharSequence) value);
+		}
+
+		public String filter(CharSequence value) throws PropertyNotFoundException {
+			Tokenizer.Scanner scanner = new Tokenizer.Scanner(value);
+			if (!scanner.find()) {
+				return value.toString();
+			}
+			StringBuilder result = new StringBuilder(value.length());
+			int index = 0;
+			do {
+				result.append(value, index, scanner.getStart());
+				result.append(expand(scanner.getName(), scanner.getDefaultValue()));
+				index = scanner.getEnd();
+			} while (scanner.find());
+			result.append(value, index, value.length());
+			return result.toString();
+		}
+
+		/**
+		 * Returns the value of the property placeholder to be inserted into filtered string.
+		 * The default value is filtered and returned when the property is not found.
+		 */
+		private String expand(Tokenizer.Token token) throws PropertyNotFoundException {
+			return expand(token.getValue(), token.getDefaultValue());
+		}
+
+		private String expand(String name, String defaultValue) throws PropertyNotFoundException {
+			if (defaultValue == null) {
+				return expand(name);
+			}
+			try {
+				return expand(name);
+			} catch (PropertyNotFoundException e) {
+				return filter(defaultValue);
+			}
+		}
+
+		/**
+		 * Returns the value of the property to be inserted into filtered string.
+		 */
+		private String expand(String name) throws PropertyNotFoundException {
+			String propertyValue = getProperty(name);
+			if (propertyValue == null) {
+				throw new PropertyNotFoundException(name);
+			}
+			expandedLength += propertyValue.length();
+			if (expandedLength > limits.getMaxExpandedLength()) {
+				throw new ResolutionLimitExceededException("Maximum expanded length of "
+						+ limits.getMaxExpandedLength() + " characters exceeded", name);
+			}
+			return propertyValue;
+		}
+
+		/**
+		 * Renders text parts separated by property placeholders.
+		 */
+		private String render(String[] texts, Tokenizer.Token[] properties) throws PropertyNotFoundException {
+			StringBuilder result = new StringBuilder(texts[0]);
+			for (int i = 0; i < properties.length; i++) {
+				result.append(expand(properties[i]));
+				result.append(texts[i + 1]);
+			}
+			return result.toString();
+		}
+
+		/**
+		 * Splits the template into text parts separated by property placeholders.
+		 * Properties which are not volatile are resolved and folded into the surrounding text.
+		 */
+		private CompiledTemplate compileTemplate(String template) {
+			List<String> texts = new ArrayList<>();
+			List<Tokenizer.Token> properties = new ArrayList<>();
+			StringBuilder text = new StringBuilder();
+			for (Tokenizer.Token token : Tokenizer.splitIntoTokens(template)) {
+				if (!token.isProperty()) {
+					text.append(token.getValue());
+					continue;
+				}
+				String value = fold(token.getValue());
+				if (value != null) {
+					text.append(value);
 				} else {
-					result.append(part.getValue());
+					texts.add(text.toString());
+					text.setLength(0);
+					properties.add(token);
 				}
 			}
-			return result.toString();
+			texts.add(text.toString());
+			return new PublicCompiledTemplate(resolver, limits, texts.toArray(new String[texts.size()]),
+					properties.toArray(new Tokenizer.Token[properties.size()]));
+		}
+
+		/**
+		 * Returns the value of the property, or null if it is volatile or cannot be resolved now.
+		 */
+		private String fold(String name) {
+			if (Cacheability.of(resolver, name) == Cacheability.VOLATILE) {
+				return null;
+			}
+			cacheability = Cacheability.CONSTANT;
+			try {
+				String value = expand(name);
+				if (cacheability == Cacheability.VOLATILE) {
+					return null;
+				}
+				return value;
+			} catch (PropertyNotFoundException e) {
+				return null;
+			}
+		}
+
+		public CompiledTemplate compile(String template) {
+			return new LoopCheckPropertyFilter(resolver, limits).compileTemplate(template);
 		}
 
 		@Override
@@ -94,45 +241,291 @@ public class DollarBrace {
 
 	private static class PublicPropertyFilter implements PropertyFilter {
 		private final PropertyResolver resolver;
+		private final ResolutionLimits limits;
 
-		public PublicPropertyFilter(PropertyResolver resolver) {
+		public PublicPropertyFilter(PropertyResolver resolver, ResolutionLimits limits) {
 			this.resolver = resolver;
+			this.limits = limits;
 		}
 
 		@Override
 		public String filter(String value) throws PropertyNotFoundException {
-			return new LoopCheckPropertyFilter(resolver).filter(value);
+			if (!Tokenizer.hasPlaceholders(value)) {
+				return value;
+			}
+			Tracer.Span span = Tracing.startFilter("filter", value.length());
+			try {
+				return new LoopCheckPropertyFilter(resolver, limits).filter((CharSequence) value);
+			} finally {
+				Tracing.close(span);
+			}
+		}
+
+		public String filter(CharSequence value) throws PropertyNotFoundException {
+			if (!Tokenizer.hasPlaceholders(value)) {
+				return value.toString();
+			}
+			Tracer.Span span = Tracing.startFilter("filter", value.length());
+			try {
+				return new LoopCheckPropertyFilter(resolver, limits).filter(value);
+			} finally {
+				Tracing.close(span);
+			}
 		}
 
 		@Override
 		public String getProperty(String name) throws PropertyNotFoundException {
-			return new LoopCheckPropertyFilter(resolver).getProperty(name);
+			Tracer.Span span = Tracing.startFilter("getProperty", name.length());
+			try {
+				return new LoopCheckPropertyFilter(resolver, limits).getProperty(name);
+			} finally {
+				Tracing.close(span);
+			}
+		}
+
+		public CompiledTemplate compile(String template) {
+			Tracer.Span span = Tracing.startFilter("compile", template.length());
+			try {
+				return new LoopCheckPropertyFilter(resolver, limits).compileTemplate(template);
+			} finally {
+				Tracing.close(span);
+			}
 		}
 
 		@Override
 		public void filter(Element element) throws PropertyNotFoundException {
-			new LoopCheckPropertyFilter(resolver).filter(element);
+			Tracer.Span span = Tracing.startFilter("filterXml", -1);
+			try {
+				// filter each value separately, so the limits apply to the single value and not to the whole tree
+				new XmlFiltering(this).filterElement(element);
+			} finally {
+				Tracing.close(span);
+			}
 		}
 
 		@Override
 		public void filterFile(Path source, Path destination) throws PropertyNotFoundException, IOException {
-			new LoopCheckPropertyFilter(resolver).filterFile(source, destination);
+			Tracer.Span span = Tracing.startFilter("filterFile", -1);
+			try {
+				new LoopCheckPropertyFilter(resolver, limits).filterFile(source, destination);
+			} finally {
+				Tracing.close(span);
+			}
+		}
+	}
+
+	/**
+	 * Template with text parts separated by property placeholders, there is one more text part than placeholders.
+	 */
+	private static class PublicCompiledTemplate implements CompiledTemplate {
+		private final PropertyResolver resolver;
+		private final ResolutionLimits limits;
+		private final String[] texts;
+		private final Tokenizer.Token[] properties;
+
+		public PublicCompiledTemplate(PropertyResolver resolver, ResolutionLimits limits, String[] texts,
+				Tokenizer.Token[] properties) {
+			this.resolver = resolver;
+			this.limits = limits;
+			this.texts = texts;
+			this.properties = properties;
+		}
+
+		@Override
+		public boolean isConstant() {
+			return properties.length == 0;
+		}
+
+		@Override
+		public String render() throws PropertyNotFoundException {
+			if (properties.length == 0) {
+				return texts[0];
+			}
+			Tracer.Span span = Tracing.startFilter("render", -1);
+			try {
+				return new LoopCheckPropertyFilter(resolver, limits).render(texts, properties);
+			} finally {
+				Tracing.close(span);
+			}
 		}
 	}
 
+	/**
+	 * Template filtered from scratch on each rendering, used for the filters not created by this class.
+	 */
+	private static class FilteringTemplate implements CompiledTemplate {
+		private final PropertyFilter filter;
+		private final String template;
+
+		public FilteringTemplate(PropertyFilter filter, String template) {
+			this.filter = filter;
+			this.template = template;
+		}
+
+		@Override
+		public boolean isConstant() {
+			return !Tokenizer.hasPlaceholders(template);
+		}
+
+		@Override
+		public String render() throws PropertyNotFoundException {
+			return filter.filter(template);
+		}
+	}
+
+	/**
+	 * Returns the limits enforced by given filter.
+	 * @param filter property filter
+	 * @return limits of the filter returned by {@link #getFilter(ResolutionLimits, PropertyResolver...)},
+	 * or {@link ResolutionLimits#DEFAULT default limits} for other filters
+	 */
+	static ResolutionLimits getLimits(PropertyFilter filter) {
+		if (filter instanceof PublicPropertyFilter) {
+			return ((PublicPropertyFilter) filter).limits;
+		}
+		if (filter instanceof LoopCheckPropertyFilter) {
+			return ((LoopCheckPropertyFilter) filter).limits;
+		}
+		return ResolutionLimits.DEFAULT;
+	}
+
+	/**
+	 * Records that the value of the property currently resolved by given filter depends on given resolver.
+	 * <p>
+	 * Called by {@link CompoundPropertyResolver} for each resolver it tries, so the filter does not need to ask
+	 * the compound resolver for the cacheability of all its resolvers before each resolution.
+	 * </p>
+	 * @param filter filter passed to the resolver
+	 * @param resolver resolver which was tried
+	 * @param name name of the property
+	 */
+	static void dependsOn(PropertyFilter filter, PropertyResolver resolver, String name) {
+		if (!(filter instanceof LoopCheckPropertyFilter) || resolver instanceof CompoundPropertyResolver) {
+			return;
+		}
+		LoopCheckPropertyFilter loopCheckFilter = (LoopCheckPropertyFilter) filter;
+		if (loopCheckFilter.cacheability != Cacheability.VOLATILE) {
+			loopCheckFilter.cacheability = loopCheckFilter.cacheability.or(Cacheability.of(resolver, name));
+		}
+	}
+
+	/**
+	 * Renders the template split into text parts and property placeholders within single filtering call,
+	 * so the resolved properties are reused and the {@link ResolutionLimits limits} apply to the whole template.
+	 * @param filter property filter
+	 * @param texts text parts, there is one more text part than placeholders
+	 * @param properties property placeholders
+	 * @return rendered template
+	 * @throws PropertyNotFoundException when some property could not be resolved
+	 */
+	static String render(PropertyFilter filter, String[] texts, Tokenizer.Token[] properties)
+			throws PropertyNotFoundException {
+		if (filter instanceof PublicPropertyFilter) {
+			PublicPropertyFilter publicFilter = (PublicPropertyFilter) filter;
+			return new PublicCompiledTemplate(publicFilter.resolver, publicFilter.limits, texts, properties).render();
+		}
+		if (filter instanceof LoopCheckPropertyFilter) {
+			LoopCheckPropertyFilter loopCheckFilter = (LoopCheckPropertyFilter) filter;
+			return loopCheckFilter.render(texts, properties);
+		}
+		StringBuilder result = new StringBuilder(texts[0]);
+		for (int i = 0; i < properties.length; i++) {
+			result.append(expand(filter, properties[i]));
+			result.append(texts[i + 1]);
+		}
+		return result.toString();
+	}
+
+	private static String expand(PropertyFilter filter, Tokenizer.Token property) throws PropertyNotFoundException {
+		String value;
+		try {
+			value = filter.getProperty(property.getValue());
+		} catch (PropertyNotFoundException e) {
+			if (property.getDefaultValue() == null) {
+				throw e;
+			}
+			return filter.filter(property.getDefaultValue());
+		}
+		if (value == null) {
+			throw new PropertyNotFoundException(property.getValue());
+		}
+		return value;
+	}
+
+	/**
+	 * Filters character sequence by replacing properties denoted by the ${...} delimeters with their resolved values.
+	 * <p>
+	 * When the filter was returned by {@link #getFilter(PropertyResolver...)}, the sequence, for instance
+	 * {@link StringBuilder} or {@link java.nio.CharBuffer}, is scanned in place and only the text between
+	 * the placeholders is copied into the result. Other filters are given the sequence converted to a string.
+	 * </p>
+	 * @param filter property filter
+	 * @param value character sequence which is parsed, it must not be modified during the call
+	 * @return filtered value
+	 * @throws PropertyNotFoundException when some property could not be resolved
+	 */
+	public static String filter(PropertyFilter filter, CharSequence value) throws PropertyNotFoundException {
+		if (filter instanceof PublicPropertyFilter) {
+			return ((PublicPropertyFilter) filter).filter(value);
+		}
+		if (filter instanceof LoopCheckPropertyFilter) {
+			return ((LoopCheckPropertyFilter) filter).filter(value);
+		}
+		return filter.filter(value.toString());
+	}
+
+	/**
+	 * Parses the template for repeated filtering.
+	 * <p>
+	 * When the filter was returned by {@link #getFilter(PropertyResolver...)}, the properties referenced
+	 * by the template, which are not {@link Cacheability#VOLATILE volatile}, are resolved once,
+	 * during compilation. Only volatile properties and the properties which could not be resolved
+	 * are resolved every time the template is {@link CompiledTemplate#render() rendered}.
+	 * Templates compiled for other filters are filtered on each rendering.
+	 * </p>
+	 * @param filter property filter
+	 * @param template string to parse
+	 * @return compiled template
+	 */
+	public static CompiledTemplate compile(PropertyFilter filter, String template) {
+		if (filter instanceof PublicPropertyFilter) {
+			return ((PublicPropertyFilter) filter).compile(template);
+		}
+		if (filter instanceof LoopCheckPropertyFilter) {
+			return ((LoopCheckPropertyFilter) filter).compile(template);
+		}
+		return new FilteringTemplate(filter, template);
+	}
+
 	/**
 	 * Returns property filter which resolves properties using provided resolvers.
 	 * <p>
 	 * The returned property filter is thread-safe.
 	 * </p>
+	 * <p>
+	 * The filtering is constrained by {@link ResolutionLimits#DEFAULT default resolution limits}.
+	 * </p>
 	 * @param resolvers property resolvers
 	 * @return property filter
 	 */
 	public static PropertyFilter getFilter(PropertyResolver... resolvers) {
+		return getFilter(ResolutionLimits.DEFAULT, resolvers);
+	}
+
+	/**
+	 * Returns property filter which resolves properties using provided resolvers.
+	 * <p>
+	 * The returned property filter is thread-safe.
+	 * </p>
+	 * @param limits limits enforced during each filtering call
+	 * @param resolvers property resolvers
+	 * @return property filter
+	 */
+	public static PropertyFilter getFilter(ResolutionLimits limits, PropertyResolver... resolvers) {
 		if (resolvers.length == 1) {
-			return new PublicPropertyFilter(resolvers[0]);
+			return new PublicPropertyFilter(resolvers[0], limits);
 		}
-		return new PublicPropertyFilter(new CompoundPropertyResolver(resolvers));
+		return new PublicPropertyFilter(new CompoundPropertyResolver(resolvers), limits);
 	}
 
 	/**
@@ -147,45 +540,4 @@ public class DollarBrace {
 	public static PropertyFilter getFilter(Properties properties) {
 		return getFilter(new PropertiesPropertyResolver(properties));
 	}
-
-	private static class XmlFiltering {
-		private final PropertyFilter propertyFilter;
-
-		private XmlFiltering(PropertyFilter propertyResolver) {
-			this.propertyFilter = propertyResolver;
-		}
-
-		public void filterElement(Element element) throws PropertyNotFoundException {
-			NamedNodeMap attributes = element.getAttributes();
-			for (int i = 0; i < attributes.getLength(); i++) {
-				Node node = attributes.item(i);
-				filterAttribute((Attr) node);
-			}
-
-			NodeList nodes = element.getChildNodes();
-			for (int i = 0; i < nodes.getLength(); i++) {
-				Node node = nodes.item(i);
-				switch (node.getNodeType()) {
-					case Node.ELEMENT_NODE:
-						filterElement((Element) node);
-						break;
-					case Node.TEXT_NODE:
-						filterText((Text) node);
-						break;
-				}
-			}
-		}
-
-		private void filterAttribute(Attr attribute) throws PropertyNotFoundException {
-			attribute.setValue(filterString(attribute.getValue()));
-		}
-
-		private void filterText(Text text) throws PropertyNotFoundException {
-			text.setTextContent(filterString(text.getTextContent()));
-		}
-
-		private String filterString(String value) throws PropertyNotFoundException {
-			return propertyFilter.filter(value);
-		}
-	}
 }
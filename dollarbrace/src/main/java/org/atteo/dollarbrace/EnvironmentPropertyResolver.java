@@ -22,6 +22,10 @@ package org.atteo.dollarbrace;
  * <p>
  * Due to security concerns it does not recursively resolve properties by default.
  * </p>
+ * <p>
+ * Undefined environment variable is not found, so {@link CompoundPropertyResolver} tries the next resolvers,
+ * which can provide the default value for it.
+ * </p>
  */
 public class EnvironmentPropertyResolver extends SimplePropertyResolver {
 	private final static String prefix = "env.";
@@ -30,12 +34,28 @@ public class EnvironmentPropertyResolver extends SimplePropertyResolver {
 		filterResult = false;
 	}
 
+	/**
+	 * Environment variables cannot change while the JVM is running.
+	 */
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.CONSTANT;
+	}
+
 	@Override
 	public String getProperty(String name) throws PropertyNotFoundException {
-		if (!name.startsWith(prefix)) {
+		String value = findProperty(name);
+		if (value == null) {
 			throw new PropertyNotFoundException(name);
 		}
-		name = name.substring(prefix.length());
-		return System.getenv(name);
+		return value;
+	}
+
+	@Override
+	protected String findProperty(String name) {
+		if (!name.startsWith(prefix)) {
+			return null;
+		}
+		return System.getenv(name.substring(prefix.length()));
 	}
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.atteo.dollarbrace.spi.Tokenizer;
+
+/**
+ * Properties and templates tokenized ahead of time.
+ * <p>
+ * The bundle is {@link #compile(Map, Map) compiled} at build time: the property values and the templates
+ * are split into text and property name parts and the references between the properties are checked for cycles.
+ * Then it is {@link #write(OutputStream) written} into compact binary form, which is {@link #read(InputStream)
+ * read} at runtime without any parsing or validation.
+ * </p>
+ * <p>
+ * The properties of the bundle are resolved by its {@link #getPropertyResolver() property resolver}.
+ * Properties which are not defined in the bundle are resolved by the filter, so the resolver can be combined
+ * with other resolvers as usual.
+ * </p>
+ * <p>
+ * The bundle can be created during the build by executing {@link #main(String[])} method,
+ * for instance with exec-maven-plugin.
+ * </p>
+ */
+public class FilterBundle {
+	private static final int MAGIC = 0x44424642;
+	private static final int VERSION = 1;
+
+	/**
+	 * Text parts separated by property placeholders, there is one more text part than placeholders.
+	 */
+	private static final class Value {
+		private final String[] texts;
+		private final Tokenizer.Token[] properties;
+
+		public Value(String[] texts, Tokenizer.Token[] properties) {
+			this.texts = texts;
+			this.properties = properties;
+		}
+	}
+
+	private final Map<String, Value> properties;
+	private final Map<String, Value> templates;
+
+	private final CacheablePropertyResolver propertyResolver = new CacheablePropertyResolver() {
+		@Override
+		public Cacheability getCacheability(String name) {
+			return Cacheability.CONSTANT;
+		}
+
+		@Override
+		public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+			name = filter.filter(name);
+			Value value = properties.get(name);
+			if (value == null) {
+				throw new PropertyNotFoundException(name);
+			}
+			return render(value, filter);
+		}
+	};
+
+	private FilterBundle(Map<String, Value> properties, Map<String, Value> templates) {
+		this.properties = properties;
+		this.templates = templates;
+	}
+
+	/**
+	 * Compiles given properties and templates into the bundle.
+	 * @param properties property values by property name
+	 * @param templates templates by template name
+	 * @return compiled bundle
+	 * @throws CircularPropertyResolutionException when some of the properties depend recursively on itself
+	 */
+	public static FilterBundle compile(Map<String, String> properties, Map<String, String> templates) {
+		Map<String, Value> compiledProperties = new HashMap<>();
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			compiledProperties.put(entry.getKey(), split(entry.getValue()));
+		}
+		Map<String, Value> compiledTemplates = new LinkedHashMap<>();
+		for (Map.Entry<String, String> entry : templates.entrySet()) {
+			compiledTemplates.put(entry.getKey(), split(entry.getValue()));
+		}
+		checkCycles(compiledProperties);
+		return new FilterBundle(compiledProperties, compiledTemplates);
+	}
+
+	private static Value split(String value) {
+		List<String> texts = new ArrayList<>();
+		List<Tokenizer.Token> properties = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
+		for (Tokenizer.Token token : Tokenizer.splitIntoTokens(value)) {
+			if (token.isProperty()) {
+				texts.add(text.toString());
+				text.setLength(0);
+				properties.add(token);
+			} else {
+				text.append(token.getValue());
+			}
+		}
+		texts.add(text.toString());
+		return new Value(texts.toArray(new String[texts.size()]),
+				properties.toArray(new Tokenizer.Token[properties.size()]));
+	}
+
+	/**
+	 * Checks the references between the properties of the bundle. Property names containing placeholders
+	 * are known only at runtime, so they are checked then. Default values are used only when the property
+	 * is missing, so they are checked at runtime too.
+	 */
+	private static void checkCycles(Map<String, Value> properties) {
+		Map<String, Boolean> visited = new HashMap<>();
+		for (String name : properties.keySet()) {
+			visit(name, properties, visited);
+		}
+	}
+
+	/**
+	 * @param visited false for the properties being visited, true for the already checked ones
+	 */
+	private static void visit(String name, Map<String, Value> properties, Map<String, Boolean> visited) {
+		Boolean checked = visited.get(name);
+		if (checked != null) {
+			if (!checked) {
+				throw new CircularPropertyResolutionException(name);
+			}
+			return;
+		}
+		Value value = properties.get(name);
+		if (value == null) {
+			return;
+		}
+		visited.put(name, false);
+		for (Tokenizer.Token property : value.properties) {
+			if (!Tokenizer.hasPlaceholders(property.getValue())) {
+				visit(property.getValue(), properties, visited);
+			}
+		}
+		visited.put(name, true);
+	}
+
+	/**
+	 * Reads the bundle written with {@link #write(OutputStream)}.
+	 * @param stream input stream
+	 * @return filter bundle
+	 * @throws IOException when the bundle cannot be read
+	 */
+	public static FilterBundle read(InputStream stream) throws IOException {
+		DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+		if (input.readInt() != MAGIC) {
+			throw new IOException("Not a filter bundle");
+		}
+		int version = input.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported filter bundle version: " + version);
+		}
+		Map<String, Value> properties = readValues(input, new HashMap<String, Value>());
+		Map<String, Value> templates = readValues(input, new LinkedHashMap<String, Value>());
+		return new FilterBundle(properties, templates);
+	}
+
+	/**
+	 * Reads the bundle written with {@link #write(OutputStream)}.
+	 * @param file bundle file
+	 * @return filter bundle
+	 * @throws IOException when the bundle cannot be read
+	 */
+	public static FilterBundle read(Path file) throws IOException {
+		try (InputStream stream = Files.newInputStream(file)) {
+			return read(stream);
+		}
+	}
+
+	/**
+	 * Writes the bundle into the stream.
+	 * @param stream output stream, it is not closed
+	 * @throws IOException when the bundle cannot be written
+	 */
+	public void write(OutputStream stream) throws IOException {
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		writeValues(output, properties);
+		writeValues(output, templates);
+		output.flush();
+	}
+
+	/**
+	 * Returns the resolver of the bundle properties.
+	 */
+	public PropertyResolver getPropertyResolver() {
+		return propertyResolver;
+	}
+
+	/**
+	 * Returns the names of the bundle templates.
+	 */
+	public Set<String> getTemplateNames() {
+		return Collections.unmodifiableSet(templates.keySet());
+	}
+
+	/**
+	 * Renders the template of the bundle.
+	 * @param name name of the template
+	 * @param filter property filter used to resolve the properties, usually the one
+	 * created with {@link #getPropertyResolver()}
+	 * @return rendered template
+	 * @throws PropertyNotFoundException when some property cannot be resolved
+	 * @throws IllegalArgumentException when the bundle does not contain such template
+	 */
+	public String renderTemplate(String name, PropertyFilter filter) throws PropertyNotFoundException {
+		Value value = templates.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Template not found: " + name);
+		}
+		return render(value, filter);
+	}
+
+	private static String render(Value value, PropertyFilter filter) throws PropertyNotFoundException {
+		if (value.properties.length == 0) {
+			return value.texts[0];
+		}
+		return DollarBrace.render(filter, value.texts, value.properties);
+	}
+
+	private static void writeValues(DataOutputStream output, Map<String, Value> map) throws IOException {
+		output.writeInt(map.size());
+		for (Map.Entry<String, Value> entry : map.entrySet()) {
+			writeString(output, entry.getKey());
+			Value value = entry.getValue();
+			output.writeInt(value.properties.length);
+			for (int i = 0; i < value.properties.length; i++) {
+				writeString(output, value.texts[i]);
+				writeString(output, value.properties[i].getValue());
+				writeString(output, value.properties[i].getDefaultValue());
+			}
+			writeString(output, value.texts[value.properties.length]);
+		}
+	}
+
+	private static Map<String, Value> readValues(DataInputStream input, Map<String, Value> map)
+			throws IOException {
+		int size = input.readInt();
+		for (int i = 0; i < size; i++) {
+			String name = readString(input);
+			int count = input.readInt();
+			String[] texts = new String[count + 1];
+			Tokenizer.Token[] properties = new Tokenizer.Token[count];
+			for (int j = 0; j < count; j++) {
+				texts[j] = readString(input);
+				properties[j] = new Tokenizer.Token(readString(input), true, readString(input));
+			}
+			texts[count] = readString(input);
+			map.put(name, new Value(texts, properties));
+		}
+		return map;
+	}
+
+	/**
+	 * Writes UTF-8 encoded string preceded by its length, or -1 for null.
+	 */
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length == -1) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Compiles the bundle from the files.
+	 * <p>
+	 * Usage: FilterBundle output-file input-file...
+	 * </p>
+	 * <p>
+	 * Input files with .properties extension are loaded as properties, all the other files
+	 * are stored as templates named by the given path.
+	 * </p>
+	 * @param args command line arguments
+	 * @throws IOException when some file cannot be read or written
+	 * @throws IllegalArgumentException when the output file is not given
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			throw new IllegalArgumentException("Usage: FilterBundle output-file input-file...");
+		}
+		List<Path> propertyFiles = new ArrayList<>();
+		Map<String, String> templates = new LinkedHashMap<>();
+		for (int i = 1; i < args.length; i++) {
+			Path file = Paths.get(args[i]);
+			if (args[i].endsWith(".properties")) {
+				propertyFiles.add(file);
+			} else {
+				templates.put(args[i], new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+			}
+		}
+		FilterBundle bundle = compile(new PropertiesLoader().load(propertyFiles), templates);
+		try (OutputStream output = Files.newOutputStream(Paths.get(args[0]))) {
+			bundle.write(output);
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.atteo.dollarbrace.spi.Tokenizer;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Shares large base property resolver between many small overlays.
+ * <p>
+ * {@link #overlay(Map) Overlay} resolves its own properties first and all the others from the base resolver.
+ * Overlays do not copy the base. Values of the base properties are filtered and cached once for all the overlays.
+ * The cached value is used by the overlay, unless it depends on some property which the overlay redefines.
+ * </p>
+ * <p>
+ * For instance, given base properties {@code host=localhost} and {@code url=http://${host}/},
+ * overlay {@code port=8080} reuses cached value of the {@code url}, while overlay {@code host=example.com}
+ * resolves it again.
+ * </p>
+ * <p>
+ * Overlay should be the only resolver of the {@link PropertyFilter}, or at least the first one,
+ * so the properties referenced by the base values are resolved the same way in all the overlays.
+ * Call {@link #clearCache()} when the base properties are modified. The cached values are derived
+ * with the {@link ResolutionLimits limits} of the filter which requested them and the least recently used
+ * ones are evicted when the cache grows too large.
+ * {@link Cacheability#VOLATILE Volatile} values are never cached.
+ * </p>
+ * <p>
+ * Names are passed to the base resolver unfiltered, so the base can be a {@link CompoundPropertyResolver}
+ * with prefixed resolvers. The names built from other properties, like <code>${name${index}}</code>,
+ * are filtered only to be matched against the overlay properties. The values which depend
+ * on such names are not cached.
+ * </p>
+ */
+public class LayeredPropertyResolver implements CacheablePropertyResolver {
+	private static final int CACHE_SIZE = 10000;
+
+	/**
+	 * Name of the derived property together with the limits it was derived with.
+	 */
+	private static final class Key {
+		private final String name;
+		private final ResolutionLimits limits;
+
+		public Key(String name, ResolutionLimits limits) {
+			this.name = name;
+			this.limits = limits;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) object;
+			return name.equals(other.name) && limits == other.limits;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + System.identityHashCode(limits);
+		}
+	}
+
+	/**
+	 * Value of the base property resolved without any overlay together with the names of all the properties
+	 * which were resolved to obtain it.
+	 */
+	private static class Derivation {
+		private final String value;
+		private final Set<String> references;
+
+		public Derivation(String value, Set<String> references) {
+			this.value = value;
+			this.references = references;
+		}
+	}
+
+	/**
+	 * Resolves properties from the base resolver recording their names.
+	 */
+	private class RecordingPropertyResolver implements CacheablePropertyResolver {
+		private final Set<String> references = new HashSet<>();
+		private Cacheability cacheability = Cacheability.CONSTANT;
+		/**
+		 * True, if some name with placeholders was resolved, the references are then unknown.
+		 */
+		private boolean dynamic = false;
+
+		@Override
+		public Cacheability getCacheability(String name) {
+			return Cacheability.of(base, name);
+		}
+
+		@Override
+		public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+			if (Tokenizer.hasPlaceholders(name)) {
+				dynamic = true;
+			} else {
+				references.add(name);
+			}
+			cacheability = cacheability.or(Cacheability.of(base, name));
+			return base.resolveProperty(name, filter);
+		}
+	}
+
+	private class Overlay implements CacheablePropertyResolver {
+		private final Map<String, String> properties;
+
+		public Overlay(Map<String, String> properties) {
+			this.properties = properties;
+		}
+
+		@Override
+		public Cacheability getCacheability(String name) {
+			return Cacheability.SNAPSHOT.or(Cacheability.of(base, name));
+		}
+
+		@Override
+		public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+			if (!Tokenizer.hasPlaceholders(name)) {
+				String value = properties.get(name);
+				if (value != null) {
+					return filter.filter(value);
+				}
+
+				Derivation derivation = derive(name, DollarBrace.getLimits(filter));
+				if (derivation != null && derivation.value != null && !redefinesAny(derivation.references)) {
+					return derivation.value;
+				}
+			} else if (!properties.isEmpty()) {
+				String value = properties.get(filterName(name, filter));
+				if (value != null) {
+					return filter.filter(value);
+				}
+			}
+			return base.resolveProperty(name, filter);
+		}
+
+		/**
+		 * Returns the filtered name, or null if it cannot be filtered. Such names are meant
+		 * for the prefixed resolvers, like <code>${oneof:${missing},default}</code>.
+		 */
+		private String filterName(String name, PropertyFilter filter) {
+			try {
+				return filter.filter(name);
+			} catch (PropertyNotFoundException e) {
+				return null;
+			}
+		}
+
+		private boolean redefinesAny(Set<String> references) {
+			for (String key : properties.keySet()) {
+				if (references.contains(key)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private final PropertyResolver base;
+	private final Cache<Key, Derivation> derivations = CacheBuilder.newBuilder()
+			.maximumSize(CACHE_SIZE)
+			.build();
+	private final Overlay emptyOverlay = new Overlay(Collections.<String, String>emptyMap());
+
+	/**
+	 * Creates layered property resolver.
+	 * @param base property resolver shared by all the overlays
+	 */
+	public LayeredPropertyResolver(PropertyResolver base) {
+		this.base = base;
+	}
+
+	/**
+	 * Returns property resolver which resolves given properties first, and all the others from the base resolver.
+	 * <p>
+	 * Values of given properties are filtered, so they can reference both overlay and base properties.
+	 * </p>
+	 * @param properties properties which override base properties, they are copied
+	 * @return overlay property resolver
+	 */
+	public PropertyResolver overlay(Map<String, String> properties) {
+		return new Overlay(new HashMap<>(properties));
+	}
+
+	/**
+	 * Removes all the cached values of the base properties.
+	 */
+	public void clearCache() {
+		derivations.invalidateAll();
+	}
+
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.of(base, name);
+	}
+
+	@Override
+	public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+		return emptyOverlay.resolveProperty(name, filter);
+	}
+
+	/**
+	 * Resolves base property without any overlay.
+	 * @param limits limits of the filter which resolves the property
+	 * @return resolved value, value with null value when it cannot be resolved from the base alone,
+	 * or null when the value cannot be cached
+	 */
+	private Derivation derive(String name, ResolutionLimits limits) {
+		Key key = new Key(name, limits);
+		Derivation derivation = derivations.getIfPresent(key);
+		if (derivation != null) {
+			return derivation;
+		}
+
+		RecordingPropertyResolver recording = new RecordingPropertyResolver();
+		String value;
+		try {
+			value = DollarBrace.getFilter(limits, recording).getProperty(name);
+		} catch (PropertyNotFoundException | CircularPropertyResolutionException e) {
+			// overlay may provide missing property or break the cycle
+			value = null;
+		}
+		if (recording.cacheability == Cacheability.VOLATILE || recording.dynamic) {
+			return null;
+		}
+		derivation = new Derivation(value, recording.references);
+		derivations.put(key, derivation);
+		return derivation;
+	}
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.Nonnull;
+
+import com.google.common.primitives.UnsignedBytes;
+
+/**
+ * Property resolver based on immutable memory-mapped file.
+ * <p>
+ * The file is created with {@link #write(Map, Path)} from the properties loaded from any source,
+ * for instance with {@link Properties#load(java.io.Reader)} or {@link Properties#loadFromXML(java.io.InputStream)}.
+ * The properties are not loaded into the heap. Each lookup performs binary search over the sorted index
+ * stored in the file, so the JVMs mapping the same file share single copy of it in the page cache.
+ * </p>
+ * <p>
+ * The file must not be modified while it is mapped. Its size is limited to 2GB.
+ * </p>
+ * <p>
+ * File format: magic number, version and entry count followed by the index of entry offsets sorted
+ * by the UTF-8 encoded key and the entries themselves. Each entry consists of the key length, the key,
+ * the value length and the value, all lengths are in bytes.
+ * </p>
+ */
+public class MappedPropertyResolver extends SimplePropertyResolver {
+	private static final int MAGIC = 0x44425046;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 12;
+
+	private final ByteBuffer buffer;
+	private final int count;
+
+	/**
+	 * Maps given file into memory.
+	 * @param file file created with {@link #write(Map, Path)}
+	 * @throws IOException when the file cannot be mapped or has invalid format
+	 */
+	public MappedPropertyResolver(@Nonnull Path file) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Property file is too large: " + file);
+			}
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (mapped.limit() < HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+			throw new IOException("Not a property file: " + file);
+		}
+		if (mapped.getInt(4) != VERSION) {
+			throw new IOException("Unsupported property file version " + mapped.getInt(4) + ": " + file);
+		}
+		count = mapped.getInt(8);
+		if (count < 0 || HEADER_SIZE + 4L * count > mapped.limit()) {
+			throw new IOException("Corrupted property file: " + file);
+		}
+		buffer = mapped;
+	}
+
+	/**
+	 * Returns the number of properties in the file.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns {@link Cacheability#CONSTANT}, the file is immutable.
+	 */
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.CONSTANT;
+	}
+
+	@Override
+	public String getProperty(String name) throws PropertyNotFoundException {
+		String value = findProperty(name);
+		if (value == null) {
+			throw new PropertyNotFoundException(name);
+		}
+		return value;
+	}
+
+	@Override
+	protected String findProperty(String name) {
+		byte[] key = name.getBytes(StandardCharsets.UTF_8);
+		int entry = find(key);
+		if (entry == -1) {
+			return null;
+		}
+		int valueOffset = entry + 4 + key.length;
+		return decode(valueOffset + 4, buffer.getInt(valueOffset));
+	}
+
+	/**
+	 * Returns the offset of the entry with given key, or -1 if there is none.
+	 */
+	private int find(byte[] key) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int entry = buffer.getInt(HEADER_SIZE + 4 * middle);
+			int comparison = compareKey(entry, key);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Compares the key of the entry at given offset with given key.
+	 */
+	private int compareKey(int entry, byte[] key) {
+		int length = buffer.getInt(entry);
+		int start = entry + 4;
+		int common = Math.min(length, key.length);
+		for (int i = 0; i < common; i++) {
+			int comparison = UnsignedBytes.compare(buffer.get(start + i), key[i]);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return length - key.length;
+	}
+
+	private String decode(int offset, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer view = buffer.duplicate();
+		view.position(offset);
+		view.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes properties into the file which can be mapped by {@link MappedPropertyResolver}.
+	 * @param properties properties to write
+	 * @param file destination file, overwritten if it exists
+	 * @throws IOException when the file cannot be written
+	 */
+	public static void write(Properties properties, Path file) throws IOException {
+		Map<String, String> map = new HashMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			map.put(name, properties.getProperty(name));
+		}
+		write(map, file);
+	}
+
+	/**
+	 * Writes properties into the file which can be mapped by {@link MappedPropertyResolver}.
+	 * @param properties properties to write
+	 * @param file destination file, overwritten if it exists
+	 * @throws IOException when the file cannot be written
+	 */
+	public static void write(Map<String, String> properties, Path file) throws IOException {
+		List<byte[][]> entries = new ArrayList<>(properties.size());
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			entries.add(new byte[][] {
+				entry.getKey().getBytes(StandardCharsets.UTF_8),
+				entry.getValue().getBytes(StandardCharsets.UTF_8)
+			});
+		}
+		final Comparator<byte[]> comparator = UnsignedBytes.lexicographicalComparator();
+		Collections.sort(entries, new Comparator<byte[][]>() {
+			@Override
+			public int compare(byte[][] first, byte[][] second) {
+				return comparator.compare(first[0], second[0]);
+			}
+		});
+
+		long size = HEADER_SIZE + 4L * entries.size();
+		for (byte[][] entry : entries) {
+			size += 8 + entry[0].length + entry[1].length;
+		}
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Properties do not fit into 2GB file");
+		}
+
+		int offset = HEADER_SIZE + 4 * entries.size();
+		try (OutputStream stream = Files.newOutputStream(file);
+				DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(entries.size());
+			for (byte[][] entry : entries) {
+				output.writeInt(offset);
+				offset += 8 + entry[0].length + entry[1].length;
+			}
+			for (byte[][] entry : entries) {
+				output.writeInt(entry[0].length);
+				output.write(entry[0]);
+				output.writeInt(entry[1].length);
+				output.write(entry[1]);
+			}
+		}
+	}
+}
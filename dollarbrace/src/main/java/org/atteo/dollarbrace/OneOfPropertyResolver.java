@@ -15,62 +15,146 @@
  */
 package org.atteo.dollarbrace;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.atteo.dollarbrace.spi.Tokenizer;
 
-import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
-public class OneOfPropertyResolver implements PrefixedPropertyResolver {
+/**
+ * Resolves 'oneof:' prefixed names formatted as comma separated list of alternatives
+ * to the first alternative which can be resolved.
+ * <p>
+ * Each alternative is a text which can contain property placeholders. Arguments are parsed once
+ * into immutable list of alternatives which is then cached. The alternatives are evaluated lazily,
+ * left to right, and the evaluation of an alternative stops at the first property which cannot be resolved.
+ * </p>
+ */
+public class OneOfPropertyResolver implements PrefixedPropertyResolver, CacheablePropertyResolver {
 	private static final String prefix = "oneof:";
+	private static final int CACHE_SIZE = 10000;
+
+	/**
+	 * Text parts separated by property placeholders, there is one more text part than placeholders.
+	 */
+	private static final class Alternative {
+		private final String[] texts;
+		private final Tokenizer.Token[] properties;
+
+		public Alternative(String[] texts, Tokenizer.Token[] properties) {
+			this.texts = texts;
+			this.properties = properties;
+		}
+
+		/**
+		 * Returns the value of the alternative or null if some property cannot be resolved.
+		 */
+		public String evaluate(PropertyFilter filter) {
+			if (properties.length == 0) {
+				return texts[0];
+			}
+			StringBuilder result = new StringBuilder(texts[0]);
+			for (int i = 0; i < properties.length; i++) {
+				String value = resolve(properties[i], filter);
+				if (value == null) {
+					return null;
+				}
+				result.append(value).append(texts[i + 1]);
+			}
+			return result.toString();
+		}
+
+		/**
+		 * Returns the value of the property, its filtered default value, or null if neither can be resolved.
+		 */
+		private static String resolve(Tokenizer.Token property, PropertyFilter filter) {
+			try {
+				return filter.getProperty(property.getValue());
+			} catch (PropertyNotFoundException e) {
+				// try the default value
+			}
+			if (property.getDefaultValue() == null) {
+				return null;
+			}
+			try {
+				return filter.filter(property.getDefaultValue());
+			} catch (PropertyNotFoundException e) {
+				return null;
+			}
+		}
+	}
+
+	private final Cache<String, Alternative[]> alternatives = CacheBuilder.newBuilder()
+			.maximumSize(CACHE_SIZE)
+			.build();
 
 	@Override
 	public String getPrefix() {
 		return prefix;
 	}
 
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.CONSTANT;
+	}
+
 	@Override
 	public String resolveProperty(String name, PropertyFilter resolver) throws PropertyNotFoundException {
 		if (!name.startsWith(prefix)) {
 			return null;
 		}
 		name = name.substring(prefix.length());
-		List<Tokenizer.Token> tokens = Tokenizer.splitIntoTokens(name);
+		Alternative[] parsed = alternatives.getIfPresent(name);
+		if (parsed == null) {
+			parsed = parse(name);
+			alternatives.put(name, parsed);
+		}
+
+		for (Alternative alternative : parsed) {
+			String value = alternative.evaluate(resolver);
+			if (value != null) {
+				return value;
+			}
+		}
+		throw new PropertyNotFoundException(name);
+	}
 
-		StringBuilder result = new StringBuilder();
-		boolean skip = false;
+	/**
+	 * Splits the text at the commas outside of the property placeholders.
+	 */
+	private static Alternative[] parse(String name) {
+		List<Alternative> result = new ArrayList<>();
+		List<String> texts = new ArrayList<>();
+		List<Tokenizer.Token> properties = new ArrayList<>();
+		StringBuilder text = new StringBuilder();
 
-		for (Tokenizer.Token token : tokens) {
+		for (Tokenizer.Token token : Tokenizer.splitIntoTokens(name)) {
 			if (token.isProperty()) {
-				if (!skip) {
-					try {
-						result.append(resolver.getProperty(token.getValue()));
-					} catch (PropertyNotFoundException e) {
-						skip = true;
-					}
-				}
-			} else {
-				boolean first = true;
-				for (String p : Splitter.on(',').split(token.getValue())) {
-					if (!first) {
-						if (!skip) {
-							return result.toString();
-						} else {
-							result = new StringBuilder();
-							skip = false;
-						}
-					}
-					if (!skip) {
-						result.append(p);
-					}
-					first = false;
-				}
+				texts.add(text.toString());
+				text.setLength(0);
+				properties.add(token);
+				continue;
 			}
+			String value = token.getValue();
+			int start = 0;
+			int comma;
+			while ((comma = value.indexOf(',', start)) != -1) {
+				text.append(value, start, comma);
+				texts.add(text.toString());
+				text.setLength(0);
+				result.add(new Alternative(texts.toArray(new String[texts.size()]),
+						properties.toArray(new Tokenizer.Token[properties.size()])));
+				texts.clear();
+				properties.clear();
+				start = comma + 1;
+			}
+			text.append(value, start, value.length());
 		}
-		if (skip) {
-			throw new PropertyNotFoundException(name);
-		}
-
-		return result.toString();
+		texts.add(text.toString());
+		result.add(new Alternative(texts.toArray(new String[texts.size()]),
+				properties.toArray(new Tokenizer.Token[properties.size()])));
+		return result.toArray(new Alternative[result.size()]);
 	}
 }
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Interner;
+
+/**
+ * Loads .properties files into the map which can be passed directly
+ * to {@link PropertiesPropertyResolver#PropertiesPropertyResolver(Map)}.
+ * <p>
+ * The files are parsed according to the same rules as {@link Properties#load(java.io.InputStream)},
+ * that is using ISO-8859-1 encoding with Unicode escapes, but without the synchronization
+ * and per-character stream reads. The files can be {@link #setMemoryMapped(boolean) memory-mapped}
+ * and {@link #setExecutor(ExecutorService) parsed in parallel}. When the same property is defined
+ * in many files, the value from the last file wins.
+ * </p>
+ */
+public class PropertiesLoader {
+	private boolean memoryMapped = false;
+	private ExecutorService executor;
+	private Interner<String> interner;
+
+	/**
+	 * Sets whether the files should be memory-mapped instead of read into the heap.
+	 * @param memoryMapped when true, the files are memory-mapped
+	 */
+	public void setMemoryMapped(boolean memoryMapped) {
+		this.memoryMapped = memoryMapped;
+	}
+
+	/**
+	 * Sets the executor used to parse the files in parallel.
+	 * @param executor executor service, or null to parse the files on the calling thread
+	 */
+	public void setExecutor(@Nullable ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets the interner used to deduplicate the property names.
+	 * <p>
+	 * The same property names loaded by many loaders sharing the interner, for instance
+	 * {@link com.google.common.collect.Interners#newWeakInterner()}, then share single String instance.
+	 * </p>
+	 * @param interner interner, or null to keep the names as parsed
+	 */
+	public void setInterner(@Nullable Interner<String> interner) {
+		this.interner = interner;
+	}
+
+	/**
+	 * Loads properties from given files.
+	 * @param files .properties files, later files override the properties defined by earlier ones
+	 * @return loaded properties
+	 * @throws IOException when some file cannot be read
+	 */
+	public Map<String, String> load(Path... files) throws IOException {
+		return load(Arrays.asList(files));
+	}
+
+	/**
+	 * Loads properties from given files.
+	 * @param files .properties files, later files override the properties defined by earlier ones
+	 * @return loaded properties
+	 * @throws IOException when some file cannot be read
+	 */
+	public Map<String, String> load(List<Path> files) throws IOException {
+		if (executor == null || files.size() < 2) {
+			Map<String, String> result = new HashMap<>();
+			for (Path file : files) {
+				parse(read(file), result, interner);
+			}
+			return result;
+		}
+
+		List<Future<Map<String, String>>> futures = new ArrayList<>(files.size());
+		for (final Path file : files) {
+			futures.add(executor.submit(new Callable<Map<String, String>>() {
+				@Override
+				public Map<String, String> call() throws IOException {
+					Map<String, String> result = new HashMap<>();
+					parse(read(file), result, interner);
+					return result;
+				}
+			}));
+		}
+		try {
+			Map<String, String> result = new HashMap<>();
+			for (Future<Map<String, String>> future : futures) {
+				result.putAll(future.get());
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading properties", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			for (Future<Map<String, String>> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private ByteBuffer read(Path file) throws IOException {
+		if (!memoryMapped) {
+			return ByteBuffer.wrap(Files.readAllBytes(file));
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * Parses properties from the remaining bytes of the buffer and puts them into the map.
+	 * @throws IllegalArgumentException when malformed Unicode escape is found
+	 */
+	static void parse(ByteBuffer input, Map<String, String> result, @Nullable Interner<String> interner) {
+		new Parser(input, interner).parse(result);
+	}
+
+	private static class Parser {
+		private final ByteBuffer input;
+		private final Interner<String> interner;
+		private final int limit;
+		private int position;
+		private char[] buffer = new char[128];
+		private int length;
+
+		public Parser(ByteBuffer input, Interner<String> interner) {
+			this.input = input;
+			this.interner = interner;
+			this.position = input.position();
+			this.limit = input.limit();
+		}
+
+		public void parse(Map<String, String> result) {
+			while (position < limit) {
+				char c = charAt(position);
+				if (isWhitespace(c) || c == '\n' || c == '\r') {
+					position++;
+				} else if (c == '#' || c == '!') {
+					skipLine();
+				} else {
+					String key = parseKey();
+					if (interner != null) {
+						key = interner.intern(key);
+					}
+					String value = parseValue();
+					result.put(key, value);
+				}
+			}
+		}
+
+		private String parseKey() {
+			length = 0;
+			while (position < limit) {
+				char c = charAt(position);
+				if (c == '\\') {
+					position++;
+					unescape();
+				} else if (isWhitespace(c) || c == '\n' || c == '\r') {
+					break;
+				} else if (c == '=' || c == ':') {
+					position++;
+					skipWhitespace();
+					return new String(buffer, 0, length);
+				} else {
+					append(c);
+					position++;
+				}
+			}
+			String key = new String(buffer, 0, length);
+			skipWhitespace();
+			if (position < limit && (charAt(position) == '=' || charAt(position) == ':')) {
+				position++;
+				skipWhitespace();
+			}
+			return key;
+		}
+
+		private String parseValue() {
+			length = 0;
+			while (position < limit) {
+				char c = charAt(position);
+				if (c == '\\') {
+					position++;
+					unescape();
+				} else if (c == '\n' || c == '\r') {
+					break;
+				} else {
+					append(c);
+					position++;
+				}
+			}
+			return new String(buffer, 0, length);
+		}
+
+		/**
+		 * Handles the character after the backslash, the backslash followed by the line terminator
+		 * continues the logical line.
+		 */
+		private void unescape() {
+			if (position >= limit) {
+				return;
+			}
+			char c = charAt(position++);
+			switch (c) {
+				case '\r':
+					if (position < limit && charAt(position) == '\n') {
+						position++;
+					}
+					skipIndentation();
+					break;
+				case '\n':
+					skipIndentation();
+					break;
+				case 't':
+					append('\t');
+					break;
+				case 'n':
+					append('\n');
+					break;
+				case 'r':
+					append('\r');
+					break;
+				case 'f':
+					append('\f');
+					break;
+				case 'u':
+					append(unicode());
+					break;
+				default:
+					append(c);
+			}
+		}
+
+		private char unicode() {
+			if (position + 4 > limit) {
+				throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+			}
+			int value = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(charAt(position++), 16);
+				if (digit < 0) {
+					throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+				}
+				value = (value << 4) | digit;
+			}
+			return (char) value;
+		}
+
+		/**
+		 * Skips the whitespace between the key and the value, including line continuations.
+		 */
+		private void skipWhitespace() {
+			while (position < limit) {
+				char c = charAt(position);
+				if (isWhitespace(c)) {
+					position++;
+				} else if (c == '\\' && position + 1 < limit
+						&& (charAt(position + 1) == '\n' || charAt(position + 1) == '\r')) {
+					position++;
+					unescape();
+				} else {
+					return;
+				}
+			}
+		}
+
+		private void skipIndentation() {
+			while (position < limit && isWhitespace(charAt(position))) {
+				position++;
+			}
+		}
+
+		private void skipLine() {
+			while (position < limit && charAt(position) != '\n' && charAt(position) != '\r') {
+				position++;
+			}
+		}
+
+		private void append(char c) {
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, length * 2);
+			}
+			buffer[length++] = c;
+		}
+
+		private char charAt(int index) {
+			return (char) (input.get(index) & 0xff);
+		}
+
+		private static boolean isWhitespace(char c) {
+			return c == ' ' || c == '\t' || c == '\f';
+		}
+	}
+}
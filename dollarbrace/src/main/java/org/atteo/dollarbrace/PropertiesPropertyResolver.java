@@ -13,6 +13,7 @@
  */
 package org.atteo.dollarbrace;
 
+import java.util.Map;
 import java.util.Properties;
 
 import javax.annotation.Nonnull;
@@ -22,14 +23,35 @@ import javax.annotation.Nonnull;
  */
 public class PropertiesPropertyResolver extends SimplePropertyResolver {
 	private final Properties properties;
+	private final Map<String, String> map;
 
 	public PropertiesPropertyResolver(@Nonnull Properties properties) {
 		this.properties = properties;
+		this.map = null;
+	}
+
+	/**
+	 * Creates property resolver backed by given map, for instance loaded by {@link PropertiesLoader}.
+	 * @param properties map of properties, it is not copied
+	 */
+	public PropertiesPropertyResolver(@Nonnull Map<String, String> properties) {
+		this.properties = null;
+		this.map = properties;
+	}
+
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.SNAPSHOT;
+	}
+
+	@Override
+	protected String findProperty(String name) {
+		return map != null ? map.get(name) : properties.getProperty(name);
 	}
 
 	@Override
 	public String getProperty(String name) throws PropertyNotFoundException {
-		String value = properties.getProperty(name);
+		String value = map != null ? map.get(name) : properties.getProperty(name);
 		if (value == null) {
 			throw new PropertyNotFoundException(name);
 		}
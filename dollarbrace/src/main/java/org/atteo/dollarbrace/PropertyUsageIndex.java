@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.atteo.dollarbrace.spi.Tokenizer;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * Records which properties are referenced by which outputs, for instance filtered files.
+ * <p>
+ * Outputs are added with {@link #addTemplate(String, String)} or {@link #addFile(Path)}. When properties
+ * reference other properties, their values should be added with {@link #addProperty(String, String)},
+ * so the change of the referenced property is propagated to all the outputs which depend on it indirectly.
+ * Then {@link #getAffectedOutputs(String)} returns the outputs which have to be filtered again
+ * after the property changes.
+ * </p>
+ * <p>
+ * For placeholders with nested placeholders, like <code>${a${b}}</code>, both the nested property
+ * and the whole unresolved name are recorded. Which property such name refers to is known only
+ * during filtering, so the outputs and properties which reference it are treated as affected
+ * by the change of any property.
+ * </p>
+ * <p>
+ * The exception are the arguments of the {@link PrefixedPropertyResolver prefixed resolvers},
+ * like <code>${oneof:${a},b}</code>, which depend only on the nested properties. The prefixes
+ * of the resolvers provided by DollarBrace are known, other ones can be added with {@link #addPrefix(String)}.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PropertyUsageIndex {
+	private final SetMultimap<String, String> outputReferences = HashMultimap.create();
+	private final SetMultimap<String, String> outputsByProperty = HashMultimap.create();
+	private final SetMultimap<String, String> propertyReferences = HashMultimap.create();
+	private final SetMultimap<String, String> dependentProperties = HashMultimap.create();
+	/**
+	 * Outputs and properties which reference the names with placeholders.
+	 */
+	private final Set<String> dynamicOutputs = new HashSet<>();
+	private final Set<String> dynamicProperties = new HashSet<>();
+	private final Set<String> prefixes = new HashSet<>(Arrays.asList("oneof:", "raw:", "java:"));
+
+	/**
+	 * Declares the prefix of the {@link PrefixedPropertyResolver} which resolves its arguments only from
+	 * the properties nested in them.
+	 * <p>
+	 * The prefix should be added before the templates and properties which use it.
+	 * </p>
+	 * @param prefix prefix of the resolver, for instance <code>"oneof:"</code>
+	 */
+	public void addPrefix(String prefix) {
+		prefixes.add(prefix);
+	}
+
+	/**
+	 * Records the properties referenced by the template.
+	 * <p>
+	 * If the output was already added, its previous references are replaced.
+	 * </p>
+	 * @param output name of the output, for instance the path of the filtered file
+	 * @param template content of the template
+	 */
+	public void addTemplate(String output, String template) {
+		for (String name : outputReferences.removeAll(output)) {
+			outputsByProperty.remove(name, output);
+		}
+		dynamicOutputs.remove(output);
+		for (String name : collectReferences(template)) {
+			outputReferences.put(output, name);
+			outputsByProperty.put(name, output);
+			if (isDynamic(name)) {
+				dynamicOutputs.add(output);
+			}
+		}
+	}
+
+	/**
+	 * Records the properties referenced by the file, the output is named by {@link Path#toString()}.
+	 * @param file UTF-8 encoded file, like the ones filtered by {@link PropertyFilter#filterFile(Path, Path)}
+	 * @throws IOException when the file cannot be read
+	 */
+	public void addFile(Path file) throws IOException {
+		addTemplate(file.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Records the properties referenced by the value of given property.
+	 * @param name name of the property
+	 * @param value value of the property
+	 */
+	public void addProperty(String name, String value) {
+		for (String reference : propertyReferences.removeAll(name)) {
+			dependentProperties.remove(reference, name);
+		}
+		dynamicProperties.remove(name);
+		for (String reference : collectReferences(value)) {
+			propertyReferences.put(name, reference);
+			dependentProperties.put(reference, name);
+			if (isDynamic(reference)) {
+				dynamicProperties.add(name);
+			}
+		}
+	}
+
+	/**
+	 * Records the properties referenced by the values of given properties.
+	 * @param properties properties by name
+	 */
+	public void addProperties(Map<String, String> properties) {
+		for (Map.Entry<String, String> entry : properties.entrySet()) {
+			addProperty(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Returns the properties referenced directly by given output.
+	 */
+	public Set<String> getReferencedProperties(String output) {
+		return Collections.unmodifiableSet(outputReferences.get(output));
+	}
+
+	/**
+	 * Returns the outputs which depend on given property directly or through the values of other properties.
+	 * @param property name of the changed property
+	 * @return names of affected outputs
+	 */
+	public Set<String> getAffectedOutputs(String property) {
+		return getAffectedOutputs(Collections.singleton(property));
+	}
+
+	/**
+	 * Returns the outputs which depend on any of given properties directly or through the values
+	 * of other properties.
+	 * <p>
+	 * The outputs which reference the names with placeholders, directly or through the values of other
+	 * properties, are always returned.
+	 * </p>
+	 * @param properties names of the changed properties
+	 * @return names of affected outputs
+	 */
+	public Set<String> getAffectedOutputs(Collection<String> properties) {
+		Set<String> outputs = new LinkedHashSet<>();
+		if (properties.isEmpty()) {
+			return outputs;
+		}
+		Set<String> visited = new HashSet<>(properties);
+		visited.addAll(dynamicProperties);
+		Deque<String> queue = new ArrayDeque<>(visited);
+		outputs.addAll(dynamicOutputs);
+		while (!queue.isEmpty()) {
+			String property = queue.poll();
+			outputs.addAll(outputsByProperty.get(property));
+			for (String dependent : dependentProperties.get(property)) {
+				if (visited.add(dependent)) {
+					queue.add(dependent);
+				}
+			}
+		}
+		return outputs;
+	}
+
+	/**
+	 * Checks whether the property referenced by given name is known only during filtering.
+	 */
+	private boolean isDynamic(String name) {
+		if (!Tokenizer.hasPlaceholders(name)) {
+			return false;
+		}
+		for (String prefix : prefixes) {
+			if (name.startsWith(prefix)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Set<String> collectReferences(String value) {
+		Set<String> references = new HashSet<>();
+		collectReferences(value, references);
+		return references;
+	}
+
+	private static void collectReferences(String value, Set<String> references) {
+		if (!Tokenizer.hasPlaceholders(value)) {
+			return;
+		}
+		for (Tokenizer.Token token : Tokenizer.splitIntoTokens(value)) {
+			if (token.isProperty()) {
+				references.add(token.getValue());
+				collectReferences(token.getValue(), references);
+				if (token.getDefaultValue() != null) {
+					collectReferences(token.getDefaultValue(), references);
+				}
+			}
+		}
+	}
+}
@@ -18,7 +18,7 @@ package org.atteo.dollarbrace;
 /**
  * Resolver which returns the same string as provided.
  */
-public class RawPropertyResolver implements PrefixedPropertyResolver {
+public class RawPropertyResolver implements PrefixedPropertyResolver, CacheablePropertyResolver {
 	private static final String prefix = "raw:";
 
 	@Override
@@ -26,6 +26,11 @@ public class RawPropertyResolver implements PrefixedPropertyResolver {
 		return prefix;
 	}
 
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.CONSTANT;
+	}
+
 	@Override
 	public String resolveProperty(String name, PropertyFilter resolver) throws PropertyNotFoundException {
 		if (!name.startsWith(prefix)) {
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+/**
+ * Limits enforced during a single filtering call.
+ * <p>
+ * They protect against property sets which expand without bound, like properties referencing
+ * other properties several times on many levels: {@code a=${b}${b}, b=${c}${c}, ...}.
+ * When any of the limits is exceeded {@link ResolutionLimitExceededException} is thrown.
+ * </p>
+ */
+public final class ResolutionLimits {
+	/**
+	 * Limits used by default.
+	 */
+	public static final ResolutionLimits DEFAULT = new ResolutionLimits(100, 1000000, 16 * 1024 * 1024);
+
+	/**
+	 * No limits.
+	 */
+	public static final ResolutionLimits UNLIMITED = new ResolutionLimits(Integer.MAX_VALUE, Integer.MAX_VALUE,
+			Long.MAX_VALUE);
+
+	private final int maxDepth;
+	private final int maxSteps;
+	private final long maxExpandedLength;
+
+	/**
+	 * Creates resolution limits.
+	 * @param maxDepth maximum number of nested property resolutions
+	 * @param maxSteps maximum number of property resolutions
+	 * @param maxExpandedLength maximum total length of the resolved property values
+	 */
+	public ResolutionLimits(int maxDepth, int maxSteps, long maxExpandedLength) {
+		if (maxDepth < 1 || maxSteps < 1 || maxExpandedLength < 1) {
+			throw new IllegalArgumentException("Resolution limits must be positive");
+		}
+		this.maxDepth = maxDepth;
+		this.maxSteps = maxSteps;
+		this.maxExpandedLength = maxExpandedLength;
+	}
+
+	/**
+	 * Maximum number of nested property resolutions, when resolving property value requires
+	 * resolving another property and so on.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Maximum number of property resolutions.
+	 */
+	public int getMaxSteps() {
+		return maxSteps;
+	}
+
+	/**
+	 * Maximum total length of the resolved property values, including the values of nested properties.
+	 */
+	public long getMaxExpandedLength() {
+		return maxExpandedLength;
+	}
+}
@@ -16,12 +16,14 @@
 package org.atteo.dollarbrace;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * Simple property resolver which provides the value for some name.
  */
-public abstract class SimplePropertyResolver implements PropertyResolver {
+public abstract class SimplePropertyResolver implements CacheablePropertyResolver, SummarizedPropertyResolver {
 	protected boolean filterResult = true;
+	private boolean summarized = false;
 
 	/**
 	 * Specifies if the value returned by {@link #getProperty(String)} should be filtered.
@@ -31,11 +33,56 @@ public abstract class SimplePropertyResolver implements PropertyResolver {
 		this.filterResult = filterResult;
 	}
 
+	/**
+	 * Specifies if the properties should be looked up with {@link #findProperty(String)} when this resolver
+	 * is executed by {@link CompoundPropertyResolver}, so the resolver can be skipped without throwing
+	 * {@link PropertyNotFoundException} when it does not contain the property.
+	 * <p>
+	 * Enable it only when {@link #findProperty(String)} returns the same values as {@link #getProperty(String)}.
+	 * Subclasses which override {@link #getProperty(String)} should override {@link #findProperty(String)} as well.
+	 * </p>
+	 * @param summarized when true, {@link #findProperty(String)} is used by
+	 * {@link #resolvePropertyIfPresent(String, PropertyFilter)}
+	 */
+	public void setSummarized(boolean summarized) {
+		this.summarized = summarized;
+	}
+
+	/**
+	 * Returns {@link Cacheability#VOLATILE} by default. Subclasses which return the same value until
+	 * their source is modified should override it.
+	 */
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.VOLATILE;
+	}
+
 	@Override
 	@Nonnull
 	public String resolveProperty(String name, PropertyFilter resolver) throws PropertyNotFoundException {
 		name = resolver.filter(name);
-		String value = getProperty(name);
+		return filterValue(getProperty(name), resolver);
+	}
+
+	/**
+	 * Looks the property up with {@link #findProperty(String)} when {@link #setSummarized(boolean) enabled},
+	 * otherwise resolves it with {@link #resolveProperty(String, PropertyFilter)}.
+	 */
+	@Override
+	public final String resolvePropertyIfPresent(String name, PropertyFilter filter)
+			throws PropertyNotFoundException {
+		if (!summarized) {
+			return resolveProperty(name, filter);
+		}
+		String value = findProperty(name);
+		return value != null ? filterValue(value, filter) : null;
+	}
+
+	/**
+	 * Filters the value returned by {@link #getProperty(String)}, if {@link #setFilterResult(boolean)}
+	 * was set to true.
+	 */
+	protected String filterValue(String value, PropertyFilter resolver) throws PropertyNotFoundException {
 		if (filterResult) {
 			return resolver.filter(value);
 		} else {
@@ -52,4 +99,23 @@ public abstract class SimplePropertyResolver implements PropertyResolver {
 	 */
 	@Nonnull
 	public abstract String getProperty(String name) throws PropertyNotFoundException;
+
+	/**
+	 * Returns the value for the property with given name, or null if this resolver does not contain it.
+	 * <p>
+	 * By default calls {@link #getProperty(String)}. Override it to look the property up without throwing
+	 * {@link PropertyNotFoundException}.
+	 * </p>
+	 * @param name name of the property
+	 * @return property value or null
+	 * @see #setSummarized(boolean)
+	 */
+	@Nullable
+	protected String findProperty(String name) {
+		try {
+			return getProperty(name);
+		} catch (PropertyNotFoundException e) {
+			return null;
+		}
+	}
 }
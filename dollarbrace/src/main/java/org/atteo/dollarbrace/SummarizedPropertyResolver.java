@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.atteo.dollarbrace;
+
+import javax.annotation.Nullable;
+
+/**
+ * Property resolver which can cheaply tell that it does not contain some property.
+ * <p>
+ * {@link CompoundPropertyResolver} calls {@link #resolvePropertyIfPresent(String, PropertyFilter)}
+ * for the names without placeholders, so the resolvers which do not contain the property are skipped
+ * without throwing and catching {@link PropertyNotFoundException}, and the resolver which contains it
+ * looks the property up only once.
+ * </p>
+ */
+public interface SummarizedPropertyResolver extends PropertyResolver {
+	/**
+	 * Resolves the property like {@link #resolveProperty(String, PropertyFilter)}, but returns null
+	 * when this resolver does not contain the property.
+	 * <p>
+	 * It must return the same values as {@link #resolveProperty(String, PropertyFilter)}. Subclasses of
+	 * {@link SimplePropertyResolver} use the faster lookup only when {@link SimplePropertyResolver#setSummarized(boolean)
+	 * enabled}.
+	 * </p>
+	 * @param name name of the property, it does not contain any placeholders
+	 * @param filter property filter used to filter the value recursively
+	 * @return resolved value, or null if the resolver does not contain the property
+	 * @throws PropertyNotFoundException when the property cannot be resolved, for instance when its value
+	 * references missing property
+	 */
+	@Nullable
+	String resolvePropertyIfPresent(String name, PropertyFilter filter) throws PropertyNotFoundException;
+}
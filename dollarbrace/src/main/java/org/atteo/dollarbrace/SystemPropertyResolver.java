@@ -17,6 +17,16 @@ package org.atteo.dollarbrace;
  * Get property value from {@link System#getProperty(String) system properties}.
  */
 public class SystemPropertyResolver extends SimplePropertyResolver {
+	@Override
+	public Cacheability getCacheability(String name) {
+		return Cacheability.SNAPSHOT;
+	}
+
+	@Override
+	protected String findProperty(String name) {
+		return System.getProperty(name);
+	}
+
 	@Override
 	public String getProperty(String name) throws PropertyNotFoundException {
 		String value = System.getProperty(name);
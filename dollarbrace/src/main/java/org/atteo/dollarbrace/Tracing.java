@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.atteo.dollarbrace.spi.Tracer;
+
+/**
+ * Holds the {@link Tracer} registered as a service.
+ */
+class Tracing {
+	/**
+	 * Registered tracer, or null if there is none. Being static final, the null checks
+	 * are removed by the JIT compiler when no tracer is registered.
+	 */
+	static final Tracer TRACER = load();
+
+	private Tracing() {
+	}
+
+	static Tracer.Span startFilter(String operation, long length) {
+		return TRACER != null ? TRACER.startFilter(operation, length) : null;
+	}
+
+	static Tracer.Span startResolution(String name, PropertyResolver resolver, int depth, boolean cacheHit) {
+		return TRACER != null ? TRACER.startResolution(name, resolver, depth, cacheHit) : null;
+	}
+
+	static Tracer.Span startResolver(String name, PropertyResolver resolver) {
+		return TRACER != null ? TRACER.startResolver(name, resolver) : null;
+	}
+
+	static void close(Tracer.Span span) {
+		if (span != null) {
+			span.close();
+		}
+	}
+
+	private static Tracer load() {
+		try {
+			Iterator<Tracer> tracers = ServiceLoader.load(Tracer.class, Tracing.class.getClassLoader()).iterator();
+			return tracers.hasNext() ? tracers.next() : null;
+		} catch (ServiceConfigurationError e) {
+			return null;
+		}
+	}
+}
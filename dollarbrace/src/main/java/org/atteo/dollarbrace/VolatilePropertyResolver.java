@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.atteo.dollarbrace;
+
+/**
+ * Marker for property resolvers which can return different values for the same property name.
+ * <p>
+ * During a single filtering call each property is resolved only once and its value is reused
+ * when the property is referenced again, if its resolver is {@link CacheablePropertyResolver cacheable}.
+ * Values returned by resolvers marked with this interface, and values of all the properties which depend on them,
+ * are resolved every time.
+ * </p>
+ * <p>
+ * This is a shorthand for {@link CacheablePropertyResolver} which is always {@link Cacheability#VOLATILE}.
+ * Resolvers which do not implement {@link CacheablePropertyResolver} are treated the same way.
+ * </p>
+ */
+public interface VolatilePropertyResolver extends PropertyResolver {
+}
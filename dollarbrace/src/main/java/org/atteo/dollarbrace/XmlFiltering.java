@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+import org.atteo.dollarbrace.spi.Tokenizer;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Filters XML tree replacing properties found in attribute values and text content.
+ * <p>
+ * {@link PropertyFilter#filter(Element)} filters using the default settings. Create an instance of this class
+ * directly to customize how the tree is filtered.
+ * </p>
+ * <p>
+ * By default the tree is filtered on the calling thread. When {@link #setForkJoinPool(ForkJoinPool) fork/join pool}
+ * is provided, the filtering is split into three phases: first all attribute values and text nodes
+ * containing placeholders are collected, then collected values are filtered in parallel, and finally
+ * the tree is updated with the results. The DOM tree is accessed only from the calling thread, as DOM
+ * implementations are not thread-safe, even for reading. In this mode the property filter must be thread-safe
+ * and values resolved from the tree being filtered (for instance by {@link XmlPropertyResolver})
+ * are seen unfiltered.
+ * </p>
+ * <p>
+ * When {@link #setDeduplicate(boolean) deduplication} is enabled, each distinct value is filtered only once
+ * during a single filtering call and equal results share the same String instance.
+ * Enable it only when the properties resolve to the same values for the duration of the call.
+ * </p>
+ * <p>
+ * Only attribute values and text nodes whose content changes are updated and the changed nodes are returned.
+ * Subtrees modified after filtering can be {@link #markDirty(Node) marked as dirty} and then filtered again
+ * with {@link #filterDirty()} without traversing the rest of the tree.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class XmlFiltering {
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
+	private final PropertyFilter propertyFilter;
+	private ForkJoinPool forkJoinPool;
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private boolean deduplicate = false;
+
+	private final Set<Node> dirty = new LinkedHashSet<>();
+
+	private List<Node> changed;
+	private ConcurrentMap<String, String> filtered;
+	private ConcurrentMap<String, String> canonical;
+
+	/**
+	 * Creates XML filtering.
+	 * @param propertyFilter property filter used to filter attribute values and text content
+	 */
+	public XmlFiltering(PropertyFilter propertyFilter) {
+		this.propertyFilter = propertyFilter;
+	}
+
+	/**
+	 * Sets the pool used to filter values in parallel.
+	 * @param forkJoinPool fork/join pool, or null to filter on the calling thread
+	 */
+	public void setForkJoinPool(@Nullable ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * Sets the number of values filtered by a single parallel task.
+	 * <p>
+	 * Trees with fewer values to filter are filtered on the calling thread.
+	 * </p>
+	 * @param parallelThreshold number of values filtered by a single task
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		if (parallelThreshold < 1) {
+			throw new IllegalArgumentException("Parallel threshold must be positive");
+		}
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Sets whether values filtered during a single filtering call should be deduplicated.
+	 * @param deduplicate when true, each distinct value is filtered only once and equal results
+	 * are replaced with the same String instance
+	 */
+	public void setDeduplicate(boolean deduplicate) {
+		this.deduplicate = deduplicate;
+	}
+
+	/**
+	 * Filters given XML element together with all its descendants.
+	 * <p>
+	 * Only the nodes whose values change are updated.
+	 * </p>
+	 * @param element XML element to filter
+	 * @return attribute and text nodes which were changed
+	 * @throws PropertyNotFoundException when some property could not be resolved
+	 */
+	public List<Node> filterElement(Element element) throws PropertyNotFoundException {
+		return filterNodes(Collections.<Node>singletonList(element));
+	}
+
+	/**
+	 * Marks given node as requiring filtering by the next {@link #filterDirty()} call.
+	 * @param node element, attribute or text node
+	 */
+	public void markDirty(Node node) {
+		dirty.add(node);
+	}
+
+	/**
+	 * Filters all the nodes {@link #markDirty(Node) marked as dirty} since the last call
+	 * together with all their descendants.
+	 * @return attribute and text nodes which were changed
+	 * @throws PropertyNotFoundException when some property could not be resolved
+	 */
+	public List<Node> filterDirty() throws PropertyNotFoundException {
+		List<Node> roots = new ArrayList<>();
+		for (Node node : dirty) {
+			if (!hasDirtyAncestor(node)) {
+				roots.add(node);
+			}
+		}
+		List<Node> changed = filterNodes(roots);
+		dirty.clear();
+		return changed;
+	}
+
+	private boolean hasDirtyAncestor(Node node) {
+		Node parent = parentOf(node);
+		while (parent != null) {
+			if (dirty.contains(parent)) {
+				return true;
+			}
+			parent = parentOf(parent);
+		}
+		return false;
+	}
+
+	private static Node parentOf(Node node) {
+		if (node instanceof Attr) {
+			return ((Attr) node).getOwnerElement();
+		}
+		return node.getParentNode();
+	}
+
+	private List<Node> filterNodes(List<Node> roots) throws PropertyNotFoundException {
+		if (deduplicate) {
+			filtered = new ConcurrentHashMap<>();
+			canonical = new ConcurrentHashMap<>();
+		}
+		changed = new ArrayList<>();
+		try {
+			if (forkJoinPool == null) {
+				for (Node root : roots) {
+					filterInPlace(root);
+				}
+			} else {
+				filterInParallel(roots);
+			}
+			return changed;
+		} finally {
+			filtered = null;
+			canonical = null;
+			changed = null;
+		}
+	}
+
+	private void filterInParallel(List<Node> roots) throws PropertyNotFoundException {
+		List<Node> nodes = new ArrayList<>();
+		List<String> values = new ArrayList<>();
+		for (Node root : roots) {
+			collect(root, nodes, values);
+		}
+
+		String[] results = new String[values.size()];
+		if (values.size() <= parallelThreshold) {
+			for (int i = 0; i < results.length; i++) {
+				results[i] = filterString(values.get(i));
+			}
+		} else {
+			AtomicReference<PropertyNotFoundException> failure = new AtomicReference<>();
+			forkJoinPool.invoke(new FilterTask(values, results, 0, results.length, failure));
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+		}
+
+		for (int i = 0; i < results.length; i++) {
+			setValue(nodes.get(i), values.get(i), results[i]);
+		}
+	}
+
+	private void filterInPlace(Node node) throws PropertyNotFoundException {
+		switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				NamedNodeMap attributes = node.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++) {
+					filterInPlace(attributes.item(i));
+				}
+
+				NodeList children = node.getChildNodes();
+				for (int i = 0; i < children.getLength(); i++) {
+					filterInPlace(children.item(i));
+				}
+				break;
+			case Node.ATTRIBUTE_NODE:
+			case Node.TEXT_NODE:
+				String value = node.getNodeValue();
+				setValue(node, value, filterString(value));
+				break;
+		}
+	}
+
+	private String filterString(String value) throws PropertyNotFoundException {
+		if (filtered == null || !Tokenizer.hasPlaceholders(value)) {
+			return propertyFilter.filter(value);
+		}
+		String result = filtered.get(value);
+		if (result != null) {
+			return result;
+		}
+		result = canonicalize(propertyFilter.filter(value));
+		filtered.put(value, result);
+		return result;
+	}
+
+	private String canonicalize(String value) {
+		String existing = canonical.putIfAbsent(value, value);
+		return existing != null ? existing : value;
+	}
+
+	private static void collect(Node node, List<Node> nodes, List<String> values) {
+		switch (node.getNodeType()) {
+			case Node.ELEMENT_NODE:
+				NamedNodeMap attributes = node.getAttributes();
+				for (int i = 0; i < attributes.getLength(); i++) {
+					collect(attributes.item(i), nodes, values);
+				}
+
+				NodeList children = node.getChildNodes();
+				for (int i = 0; i < children.getLength(); i++) {
+					collect(children.item(i), nodes, values);
+				}
+				break;
+			case Node.ATTRIBUTE_NODE:
+			case Node.TEXT_NODE:
+				String value = node.getNodeValue();
+				if (Tokenizer.hasPlaceholders(value)) {
+					nodes.add(node);
+					values.add(value);
+				}
+				break;
+		}
+	}
+
+	private void setValue(Node node, String value, String result) {
+		if (result.equals(value)) {
+			return;
+		}
+		node.setNodeValue(result);
+		changed.add(node);
+	}
+
+	@SuppressWarnings("serial")
+	private class FilterTask extends RecursiveAction {
+		private final List<String> values;
+		private final String[] results;
+		private final int from;
+		private final int to;
+		private final AtomicReference<PropertyNotFoundException> failure;
+
+		private FilterTask(List<String> values, String[] results, int from, int to,
+				AtomicReference<PropertyNotFoundException> failure) {
+			this.values = values;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+			this.failure = failure;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > parallelThreshold) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new FilterTask(values, results, from, middle, failure),
+						new FilterTask(values, results, middle, to, failure));
+				return;
+			}
+			for (int i = from; i < to && failure.get() == null; i++) {
+				try {
+					results[i] = filterString(values.get(i));
+				} catch (PropertyNotFoundException e) {
+					failure.compareAndSet(null, e);
+				}
+			}
+		}
+	}
+}
@@ -13,9 +13,15 @@
  */
 package org.atteo.dollarbrace;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 
 import javax.annotation.Nullable;
+import javax.xml.stream.XMLStreamException;
 
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -42,7 +48,81 @@ import org.w3c.dom.NodeList;
  * </p>
  */
 public class XmlPropertyResolver extends SimplePropertyResolver {
+	/**
+	 * Navigates the XML tree, either DOM or compact one.
+	 */
+	private interface Navigator<T> {
+		String getName(T element);
+
+		String getAttribute(T element, String name);
+
+		T getUniqueDescendant(T element, String name);
+
+		String getTextContent(T element);
+	}
+
+	private static final Navigator<Element> domNavigator = new Navigator<Element>() {
+		@Override
+		public String getName(Element element) {
+			return element.getNodeName();
+		}
+
+		@Override
+		public String getAttribute(Element element, String name) {
+			if (element.hasAttribute(name)) {
+				return element.getAttribute(name);
+			}
+			return null;
+		}
+
+		@Override
+		public Element getUniqueDescendant(Element element, String name) {
+			NodeList list = element.getElementsByTagName(name);
+			if (list.getLength() == 1) {
+				return (Element) list.item(0);
+			}
+			return null;
+		}
+
+		@Override
+		public String getTextContent(Element element) {
+			// getTextContext() returns text content of all the children
+			// should we return only direct Text nodes elements content?
+			return element.getTextContent();
+		}
+	};
+
+	private static class CompactNavigator implements Navigator<Integer> {
+		private final CompactXmlTree tree;
+
+		public CompactNavigator(CompactXmlTree tree) {
+			this.tree = tree;
+		}
+
+		@Override
+		public String getName(Integer element) {
+			return tree.getName(element);
+		}
+
+		@Override
+		public String getAttribute(Integer element, String name) {
+			return tree.getAttribute(element, name);
+		}
+
+		@Override
+		public Integer getUniqueDescendant(Integer element, String name) {
+			int descendant = tree.getUniqueDescendant(element, name);
+			return descendant == -1 ? null : descendant;
+		}
+
+		@Override
+		public String getTextContent(Integer element) {
+			return tree.getTextContent(element);
+		}
+	}
+
 	private final Element rootElement;
+	private final CompactNavigator compactNavigator;
 	private final boolean matchRoot;
 
 	/**
@@ -52,22 +132,81 @@ public class XmlPropertyResolver extends SimplePropertyResolver {
 	 */
 	public XmlPropertyResolver(@Nullable Element rootElement, boolean matchRoot) {
 		this.rootElement = rootElement;
+		this.compactNavigator = null;
+		this.matchRoot = matchRoot;
+	}
+
+	/**
+	 * Create new property resolver based on XML document read from the stream.
+	 * <p>
+	 * Instead of building DOM tree, the document is read into compact read-only structure
+	 * which only supports property lookup. Use this constructor when the document is used only
+	 * to resolve properties.
+	 * </p>
+	 * @param stream stream to read XML document from
+	 * @param matchRoot whether root element should match, or matching should start from root element children
+	 * @throws IOException when the document cannot be read
+	 */
+	public XmlPropertyResolver(InputStream stream, boolean matchRoot) throws IOException {
+		this(readTree(stream), matchRoot);
+	}
+
+	/**
+	 * Create new property resolver based on XML document read from the file.
+	 * @param path file to read XML document from
+	 * @param matchRoot whether root element should match, or matching should start from root element children
+	 * @throws IOException when the document cannot be read
+	 * @see #XmlPropertyResolver(InputStream, boolean)
+	 */
+	public XmlPropertyResolver(Path path, boolean matchRoot) throws IOException {
+		this(readTree(path), matchRoot);
+	}
+
+	private XmlPropertyResolver(CompactXmlTree tree, boolean matchRoot) {
+		this.rootElement = null;
+		this.compactNavigator = new CompactNavigator(tree);
 		this.matchRoot = matchRoot;
 	}
 
+	private static CompactXmlTree readTree(InputStream stream) throws IOException {
+		try {
+			return CompactXmlTree.parse(stream);
+		} catch (XMLStreamException e) {
+			throw new IOException("Cannot parse XML document", e);
+		}
+	}
+
+	private static CompactXmlTree readTree(Path path) throws IOException {
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(path))) {
+			return readTree(stream);
+		}
+	}
+
+	/**
+	 * Compact tree cannot be modified, DOM tree can.
+	 */
+	@Override
+	public Cacheability getCacheability(String name) {
+		return compactNavigator != null ? Cacheability.CONSTANT : Cacheability.SNAPSHOT;
+	}
+
 	@Override
 	public String getProperty(String name) throws PropertyNotFoundException {
-		String value = getValue(name);
+		String value;
+		if (compactNavigator != null) {
+			value = getValue(compactNavigator, 0, name);
+		} else if (rootElement != null) {
+			value = getValue(domNavigator, rootElement, name);
+		} else {
+			value = null;
+		}
 		if (value == null) {
 			throw new PropertyNotFoundException(name);
 		}
 		return value;
 	}
 
-	private String getValue(String name) {
-		if (rootElement == null) {
-			return null;
-		}
+	private <T> String getValue(Navigator<T> navigator, T rootElement, String name) {
 		int position = 0;
 		ArrayList<Integer> dots = new ArrayList<Integer>();
 		while (true) {
@@ -80,11 +219,11 @@ public class XmlPropertyResolver extends SimplePropertyResolver {
 		}
 		dots.add(name.length());
 
-		Element element = rootElement;
+		T element = rootElement;
 		int dotIndex;
 
 		if (matchRoot) {
-			if (!rootElement.getNodeName().equals(name.substring(0, dots.get(0)))) {
+			if (!navigator.getName(rootElement).equals(name.substring(0, dots.get(0)))) {
 				return null;
 			}
 
@@ -97,14 +236,15 @@ public class XmlPropertyResolver extends SimplePropertyResolver {
 
 		outer: while (position < name.length()) {
 			String key = name.substring(position);
-			if (element.hasAttribute(key)) {
-				return element.getAttribute(key);
+			String attribute = navigator.getAttribute(element, key);
+			if (attribute != null) {
+				return attribute;
 			}
 			for (int i = dots.size() - 1; i > dotIndex; i--) {
 				key = name.substring(position, dots.get(i));
-				NodeList list = element.getElementsByTagName(key);
-				if (list.getLength() == 1) {
-					element = (Element) list.item(0);
+				T descendant = navigator.getUniqueDescendant(element, key);
+				if (descendant != null) {
+					element = descendant;
 					position = dots.get(i) + 1;
 					dotIndex = i;
 					continue outer;
@@ -112,9 +252,7 @@ public class XmlPropertyResolver extends SimplePropertyResolver {
 			}
 			return null;
 		}
-		// getTextContext() returns text content of all the children
-		// should we return only direct Text nodes elements content?
-		return element.getTextContent();
+		return navigator.getTextContent(element);
 	}
 
 }
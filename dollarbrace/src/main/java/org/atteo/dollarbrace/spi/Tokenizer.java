@@ -23,12 +23,21 @@ public class Tokenizer {
 	public static final class Token {
 		private final String value;
 		private final boolean property;
+		private final String defaultValue;
 
 		public Token(String value, boolean property) {
+			this(value, property, null);
+		}
+
+		public Token(String value, boolean property, String defaultValue) {
 			this.value = value;
 			this.property = property;
+			this.defaultValue = defaultValue;
 		}
 
+		/**
+		 * Returns the text, or the name of the property without the default value.
+		 */
 		public String getValue() {
 			return value;
 		}
@@ -36,69 +45,205 @@ public class Tokenizer {
 		public boolean isProperty() {
 			return property;
 		}
+
+		/**
+		 * Returns the default value of the property placeholder: <code>${name:-default}</code>.
+		 * @return unfiltered default value, or null if none was given
+		 */
+		public String getDefaultValue() {
+			return defaultValue;
+		}
+	}
+
+
+	/**
+	 * Finds the property placeholders in the character sequence without copying it.
+	 * <p>
+	 * Each call to {@link #find()} moves to the next placeholder and exposes its offsets, so the text
+	 * between the placeholders can be copied directly from the input to the output. Placeholders are
+	 * recognized according to the same rules as in {@link Tokenizer#splitIntoTokens(String)}.
+	 * </p>
+	 */
+	public static final class Scanner {
+		private final CharSequence input;
+		private final int length;
+		private int position = 0;
+		private int start = -1;
+		private int end = -1;
+		private int separator = -1;
+
+		public Scanner(CharSequence input) {
+			this.input = input;
+			this.length = input.length();
+		}
+
+		/**
+		 * Finds the next property placeholder.
+		 * @return false, if there are no more complete placeholders
+		 */
+		public boolean find() {
+			int startPosition = indexOfPlaceholder(input, position);
+			if (startPosition == -1) {
+				return false;
+			}
+			// find '${' and '}' pair, correctly handle nested pairs
+			boolean lastDollar = false;
+			int count = 1;
+			int countBrace = 0;
+			int separatorPosition = -1;
+			boolean prefixed = false;
+			int endPosition;
+			for (endPosition = startPosition + 2; endPosition < length; endPosition++) {
+				char c = input.charAt(endPosition);
+				if (c == '$') {
+					lastDollar = true;
+					continue;
+				}
+				if (c == ':' && count == 1 && countBrace == 0 && separatorPosition == -1 && !prefixed) {
+					if (endPosition + 1 < length && input.charAt(endPosition + 1) == '-') {
+						separatorPosition = endPosition;
+					} else {
+						prefixed = true;
+					}
+				} else if (c == '{') {
+					if (lastDollar) {
+						count++;
+					} else {
+						countBrace++;
+					}
+				} else if (c == '}') {
+					if (countBrace > 0) {
+						countBrace--;
+					} else {
+						count--;
+						if (count == 0) {
+							break;
+						}
+					}
+				}
+				lastDollar = false;
+			}
+			if (count > 0) {
+				position = length;
+				return false;
+			}
+			start = startPosition;
+			end = endPosition + 1;
+			separator = separatorPosition;
+			position = end;
+			return true;
+		}
+
+		/**
+		 * Returns the offset of the '$' character which starts the found placeholder.
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * Returns the offset just after the '}' character which ends the found placeholder.
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		/**
+		 * Returns the name of the property without the default value.
+		 */
+		public String getName() {
+			return input.subSequence(start + 2, separator != -1 ? separator : end - 1).toString();
+		}
+
+		/**
+		 * Returns the default value of the found placeholder.
+		 * @return unfiltered default value, or null if none was given
+		 */
+		public String getDefaultValue() {
+			if (separator == -1) {
+				return null;
+			}
+			return input.subSequence(separator + 2, end - 1).toString();
+		}
 	}
 
+	/**
+	 * Checks whether given string contains any property placeholder start: <code>${</code>.
+	 * <p>
+	 * Relies on {@link String#indexOf(String)} which the JVM compiles into a vectorized scan,
+	 * so this is the cheapest way to reject the common case of text without any placeholders.
+	 * </p>
+	 * @param input input string to check
+	 * @return true, if the string may contain a property placeholder
+	 */
+	public static boolean hasPlaceholders(String input) {
+		return input.indexOf("${") != -1;
+	}
 
-    /**
-     * Splits given string into {@link Token tokens}.
-     * <p>
-     * Token is ordinary text or property placeholder: <code>${name}</code>.
-     * For instance the string: "abc${abc}abc" will be split
-     * into three tokens: text "abc", property "abc" and text "abc".
-     * </p>
-     * @param input input string to split into tokens
-     * @return list of tokens
-     */
-    public static List<Token> splitIntoTokens(String input) {
-        List<Token> parts = new ArrayList<>();
-        int index = 0;
-        while (true) {
-            int startPosition = input.indexOf("${", index);
-            if (startPosition == -1) {
-                break;
-            }
-            // find '${' and '}' pair, correctly handle nested pairs
-            boolean lastDollar = false;
-            int count = 1;
-            int countBrace = 0;
-            int endposition;
-            for (endposition = startPosition + 2; endposition < input.length(); endposition++) {
-                if (input.charAt(endposition) == '$') {
-                    lastDollar = true;
-                    continue;
-                }
-                if (input.charAt(endposition) == '{') {
-                    if (lastDollar) {
-                        count++;
-                    } else {
-                        countBrace++;
-                    }
-                } else if (input.charAt(endposition) == '}') {
-                    if (countBrace > 0) {
-                        countBrace--;
-                    } else {
-                        count--;
-                        if (count == 0) {
-                            break;
-                        }
-                    }
-                }
-                lastDollar = false;
-            }
-            if (count > 0) {
-                break;
-            }
-            if (index != startPosition) {
-                parts.add(new Token(input.substring(index, startPosition), false));
-            }
-            String propertyName = input.substring(startPosition + 2, endposition);
-            index = endposition + 1;
-            parts.add(new Token(propertyName, true));
-        }
-        if (index != input.length()) {
-            parts.add(new Token(input.substring(index), false));
-        }
-        return parts;
-    }
+	/**
+	 * Checks whether given character sequence contains any property placeholder start: <code>${</code>.
+	 * @param input input character sequence to check
+	 * @return true, if the sequence may contain a property placeholder
+	 */
+	public static boolean hasPlaceholders(CharSequence input) {
+		return indexOfPlaceholder(input, 0) != -1;
+	}
 
+	private static int indexOfPlaceholder(CharSequence input, int from) {
+		if (input instanceof String) {
+			return ((String) input).indexOf("${", from);
+		}
+		int last = input.length() - 1;
+		for (int i = from; i < last; i++) {
+			if (input.charAt(i) == '$' && input.charAt(i + 1) == '{') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Splits given string into {@link Token tokens}.
+	 * <p>
+	 * Token is ordinary text or property placeholder: <code>${name}</code>.
+	 * For instance the string: "abc${abc}abc" will be split
+	 * into three tokens: text "abc", property "abc" and text "abc".
+	 * </p>
+	 * <p>
+	 * Property placeholder can specify the default value: <code>${name:-default}</code>. The separator
+	 * is recognized only outside of nested placeholders and only if the name does not contain a colon,
+	 * so the names handled by {@link org.atteo.dollarbrace.PrefixedPropertyResolver prefixed resolvers},
+	 * like <code>${raw:a:-b}</code>, are never split.
+	 * </p>
+	 * <p>
+	 * If the string does not contain any placeholders, the only returned text token
+	 * holds the input instance itself.
+	 * </p>
+	 * @param input input string to split into tokens
+	 * @return list of tokens
+	 */
+	public static List<Token> splitIntoTokens(String input) {
+		if (!hasPlaceholders(input)) {
+			List<Token> parts = new ArrayList<>(1);
+			if (!input.isEmpty()) {
+				parts.add(new Token(input, false));
+			}
+			return parts;
+		}
+
+		List<Token> parts = new ArrayList<>();
+		Scanner scanner = new Scanner(input);
+		int index = 0;
+		while (scanner.find()) {
+			if (index != scanner.getStart()) {
+				parts.add(new Token(input.substring(index, scanner.getStart()), false));
+			}
+			parts.add(new Token(scanner.getName(), true, scanner.getDefaultValue()));
+			index = scanner.getEnd();
+		}
+		if (index != input.length()) {
+			parts.add(new Token(input.substring(index), false));
+		}
+		return parts;
+	}
 }
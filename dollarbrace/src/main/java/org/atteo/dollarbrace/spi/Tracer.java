@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace.spi;
+
+import org.atteo.dollarbrace.PropertyResolver;
+
+/**
+ * Receives notifications about filtering and property resolution, for instance to record them as profiling events.
+ * <p>
+ * The implementation is looked up with {@link java.util.ServiceLoader} when the filtering engine is first used.
+ * If none is registered in <code>META-INF/services/org.atteo.dollarbrace.spi.Tracer</code>, tracing
+ * costs nothing. Methods of this interface are called on the filtering threads and must be thread-safe.
+ * Each method returns the span which is closed when the traced operation finishes, or null
+ * when the operation should not be traced.
+ * </p>
+ */
+public interface Tracer {
+	/**
+	 * Traced operation.
+	 */
+	interface Span extends AutoCloseable {
+		/**
+		 * Called when the operation finishes, both normally and by throwing an exception.
+		 */
+		@Override
+		void close();
+	}
+
+	/**
+	 * Called when the public filtering method is invoked.
+	 * @param operation name of the filtering method, for instance "filter", "filterFile" or "filterXml"
+	 * @param length length of the filtered input, or -1 if unknown
+	 * @return span or null
+	 */
+	Span startFilter(String operation, long length);
+
+	/**
+	 * Called when the property is resolved by the filter.
+	 * @param name name of the property
+	 * @param resolver resolver used by the filter
+	 * @param depth number of properties being resolved by the same filtering call when this one was referenced
+	 * @param cacheHit true if the value, or the fact that the property was not found,
+	 * was remembered from the previous resolution during the same filtering call
+	 * @return span or null
+	 */
+	Span startResolution(String name, PropertyResolver resolver, int depth, boolean cacheHit);
+
+	/**
+	 * Called when {@link org.atteo.dollarbrace.CompoundPropertyResolver} invokes one of its resolvers.
+	 * @param name name of the property
+	 * @param resolver invoked resolver
+	 * @return span or null
+	 */
+	Span startResolver(String name, PropertyResolver resolver);
+}
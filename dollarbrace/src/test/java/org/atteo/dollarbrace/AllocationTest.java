@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.atteo.dollarbrace.spi.Tokenizer;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Checks the number of bytes allocated by the hot paths against declared budgets.
+ * <p>
+ * The budgets have some headroom over the measured values, so they catch the regressions which multiply
+ * the garbage produced per call, and not the differences between JVMs. The tests are skipped when
+ * the JVM cannot count the bytes allocated by the thread.
+ * </p>
+ */
+public class AllocationTest {
+	private static final int WARMUP = 20000;
+	private static final int ITERATIONS = 10000;
+
+	private static final String PLAIN = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor";
+	private static final String PLACEHOLDERS = "http://${host}:${port}/${path}?user=${user}&lang=${lang}";
+
+	private static com.sun.management.ThreadMXBean threads;
+
+	private abstract static class Operation {
+		abstract Object run() throws Exception;
+	}
+
+	/**
+	 * Prevents the results from being optimized away.
+	 */
+	private static volatile Object sink;
+
+	@BeforeClass
+	public static void checkSupport() {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	private static long allocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Returns the average number of bytes allocated by single execution of the operation.
+	 */
+	private static long measure(Operation operation) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			sink = operation.run();
+		}
+		long overhead = allocatedBytes();
+		overhead = allocatedBytes() - overhead;
+		long start = allocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = operation.run();
+		}
+		long allocated = allocatedBytes() - start - overhead;
+		return Math.max(0, allocated / ITERATIONS);
+	}
+
+	private static PropertyFilter filter() {
+		Properties first = new Properties();
+		first.setProperty("host", "localhost");
+		first.setProperty("port", "8080");
+		Properties second = new Properties();
+		second.setProperty("path", "index.html");
+		second.setProperty("user", "${name}");
+		second.setProperty("name", "admin");
+		second.setProperty("lang", "en");
+		PropertiesPropertyResolver firstResolver = new PropertiesPropertyResolver(first);
+		firstResolver.setSummarized(true);
+		PropertiesPropertyResolver secondResolver = new PropertiesPropertyResolver(second);
+		secondResolver.setSummarized(true);
+		return DollarBrace.getFilter(firstResolver, secondResolver);
+	}
+
+	@Test
+	public void tokenizerPlain() throws Exception {
+		// when
+		long allocated = measure(new Operation() {
+			@Override
+			Object run() {
+				return Tokenizer.splitIntoTokens(PLAIN);
+			}
+		});
+
+		// then
+		assertThat(allocated).isLessThanOrEqualTo(128);
+	}
+
+	@Test
+	public void tokenizerPlaceholders() throws Exception {
+		// when
+		long allocated = measure(new Operation() {
+			@Override
+			Object run() {
+				return Tokenizer.splitIntoTokens(PLACEHOLDERS);
+			}
+		});
+
+		// then
+		assertThat(allocated).isLessThanOrEqualTo(1536);
+	}
+
+	@Test
+	public void filterPlain() throws Exception {
+		// given
+		final PropertyFilter filter = filter();
+
+		// when
+		long allocated = measure(new Operation() {
+			@Override
+			Object run() throws PropertyNotFoundException {
+				return filter.filter(PLAIN);
+			}
+		});
+
+		// then
+		assertThat(allocated).isLessThanOrEqualTo(16);
+	}
+
+	@Test
+	public void filterPlaceholders() throws Exception {
+		// given
+		final PropertyFilter filter = filter();
+
+		// when
+		long allocated = measure(new Operation() {
+			@Override
+			Object run() throws PropertyNotFoundException {
+				return filter.filter(PLACEHOLDERS);
+			}
+		});
+
+		// then
+		assertThat(allocated).isLessThanOrEqualTo(4096);
+	}
+
+	@Test
+	public void compoundLookup() throws Exception {
+		// given
+		final PropertyFilter filter = filter();
+		Properties first = new Properties();
+		first.setProperty("a", "1");
+		Properties second = new Properties();
+		second.setProperty("b", "2");
+		PropertiesPropertyResolver firstResolver = new PropertiesPropertyResolver(first);
+		firstResolver.setSummarized(true);
+		PropertiesPropertyResolver secondResolver = new PropertiesPropertyResolver(second);
+		secondResolver.setSummarized(true);
+		final CompoundPropertyResolver resolver = new CompoundPropertyResolver(firstResolver, secondResolver);
+
+		// when
+		long allocated = measure(new Operation() {
+			@Override
+			Object run() throws PropertyNotFoundException {
+				return resolver.resolveProperty("b", filter);
+			}
+		});
+
+		// then
+		assertThat(allocated).isLessThanOrEqualTo(64);
+	}
+}
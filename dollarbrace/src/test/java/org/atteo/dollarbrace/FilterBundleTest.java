@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import org.junit.Test;
+
+public class FilterBundleTest {
+	@Test
+	public void shouldRenderTemplatesFromReadBundle() throws IOException, PropertyNotFoundException {
+		// given
+		Map<String, String> properties = new HashMap<>();
+		properties.put("host", "localhost");
+		properties.put("url", "http://${host}:${port}/");
+		properties.put("name1", "first");
+		properties.put("indirect", "${name${index}}");
+		Map<String, String> templates = new HashMap<>();
+		templates.put("config", "url=${url}\nname=${indirect}\nuser=${user:-${host}}");
+		templates.put("plain", "no placeholders");
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		FilterBundle.compile(properties, templates).write(output);
+		Properties runtime = new Properties();
+		runtime.setProperty("port", "8080");
+		runtime.setProperty("index", "1");
+
+		// when
+		FilterBundle bundle = FilterBundle.read(new ByteArrayInputStream(output.toByteArray()));
+		PropertyFilter filter = DollarBrace.getFilter(bundle.getPropertyResolver(),
+				new PropertiesPropertyResolver(runtime));
+
+		// then
+		assertThat(bundle.getTemplateNames()).containsOnly("config", "plain");
+		assertThat(bundle.renderTemplate("config", filter))
+				.isEqualTo("url=http://localhost:8080/\nname=first\nuser=localhost");
+		assertThat(bundle.renderTemplate("plain", filter)).isEqualTo("no placeholders");
+		assertThat(filter.filter("${url}")).isEqualTo("http://localhost:8080/");
+	}
+
+	@Test
+	public void shouldRenderTemplateWithinSingleFilteringCall() throws IOException, PropertyNotFoundException {
+		// given
+		Map<String, String> templates = new HashMap<>();
+		templates.put("repeated", "${a}${a}${a}");
+		FilterBundle bundle = FilterBundle.compile(new HashMap<String, String>(), templates);
+		final AtomicInteger resolutions = new AtomicInteger();
+		PropertyFilter filter = DollarBrace.getFilter(new ResolutionLimits(32, 2, 1000),
+				new CacheablePropertyResolver() {
+			@Override
+			public Cacheability getCacheability(String name) {
+				return Cacheability.SNAPSHOT;
+			}
+
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) {
+				resolutions.incrementAndGet();
+				return "x";
+			}
+		});
+
+		// when
+		String result = bundle.renderTemplate("repeated", filter);
+
+		// then
+		assertThat(result).isEqualTo("xxx");
+		assertThat(resolutions.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldRejectUnsupportedVersion() throws IOException {
+		// given
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		FilterBundle.compile(new HashMap<String, String>(), new HashMap<String, String>()).write(output);
+		byte[] bytes = output.toByteArray();
+		bytes[7]++;
+
+		// when
+		try {
+			FilterBundle.read(new ByteArrayInputStream(bytes));
+			fail("Expected IOException");
+		} catch (IOException e) {
+			// then
+			assertThat(e).hasMessage("Unsupported filter bundle version: 2");
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shouldRejectMissingArguments() throws IOException {
+		FilterBundle.main(new String[0]);
+	}
+
+	@Test(expected = CircularPropertyResolutionException.class)
+	public void shouldDetectCyclesWhenCompiling() {
+		// given
+		Map<String, String> properties = new HashMap<>();
+		properties.put("first", "${third}");
+		properties.put("second", "${first} ${first}");
+		properties.put("third", "${first} ${second}");
+
+		// when
+		FilterBundle.compile(properties, new HashMap<String, String>());
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.Interners;
+
+import org.junit.Test;
+
+public class PropertiesLoaderTest {
+	private static final String CONTENT = "# comment\n"
+			+ "! another comment\n"
+			+ "\n"
+			+ "a=1\n"
+			+ "  b : 2  \n"
+			+ "c 3\n"
+			+ "d\\ key=value with \\t tab\r\n"
+			+ "e=first \\\n"
+			+ "     second \\\r\n"
+			+ "\tthird\r"
+			+ "f\n"
+			+ "g=\\u0105\\=\\:\\\\\n"
+			+ "h=é${a}\n"
+			+ "i = \\\n"
+			+ "  continued\n"
+			+ "j=last\\";
+
+	@Test
+	public void shouldParseLikeProperties() throws IOException {
+		// given
+		Path file = Paths.get("target", "loader.properties");
+		Files.write(file, CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+		Properties properties = new Properties();
+		properties.load(new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.ISO_8859_1)));
+		Map<String, String> expected = new HashMap<>();
+		for (String name : properties.stringPropertyNames()) {
+			expected.put(name, properties.getProperty(name));
+		}
+		PropertiesLoader loader = new PropertiesLoader();
+		PropertiesLoader mappedLoader = new PropertiesLoader();
+		mappedLoader.setMemoryMapped(true);
+
+		// when
+		Map<String, String> result = loader.load(file);
+		Map<String, String> mappedResult = mappedLoader.load(file);
+
+		// then
+		assertThat(result).isEqualTo(expected);
+		assertThat(mappedResult).isEqualTo(expected);
+	}
+
+	@Test
+	public void shouldOverrideInOrder() throws IOException, PropertyNotFoundException {
+		// given
+		Path first = Paths.get("target", "first.properties");
+		Path second = Paths.get("target", "second.properties");
+		Files.write(first, "a=1\nb=1\n".getBytes(StandardCharsets.ISO_8859_1));
+		Files.write(second, "b=2\nc=${a}${b}\n".getBytes(StandardCharsets.ISO_8859_1));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		PropertiesLoader loader = new PropertiesLoader();
+		loader.setExecutor(executor);
+
+		// when
+		Map<String, String> result;
+		try {
+			result = loader.load(first, second, first, second);
+		} finally {
+			executor.shutdown();
+		}
+		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(result));
+
+		// then
+		assertThat(result).hasSize(3);
+		assertThat(filter.getProperty("c")).isEqualTo("12");
+	}
+
+	@Test
+	public void shouldShareInternedNames() throws IOException, PropertyNotFoundException {
+		// given
+		Path first = Paths.get("target", "names1.properties");
+		Path second = Paths.get("target", "names2.properties");
+		Files.write(first, "host=first\nport=80\n".getBytes(StandardCharsets.ISO_8859_1));
+		Files.write(second, "host=second\nurl=${host}:${port}\n".getBytes(StandardCharsets.ISO_8859_1));
+		PropertiesLoader loader = new PropertiesLoader();
+		loader.setInterner(Interners.<String>newStrongInterner());
+
+		// when
+		Map<String, String> firstProperties = loader.load(first);
+		Map<String, String> secondProperties = loader.load(second);
+		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(secondProperties),
+				new PropertiesPropertyResolver(firstProperties));
+
+		// then
+		assertThat(findKey(secondProperties, "host")).isSameAs(findKey(firstProperties, "host"));
+		assertThat(filter.getProperty("url")).isEqualTo("second:80");
+	}
+
+	private static String findKey(Map<String, String> properties, String name) {
+		for (String key : properties.keySet()) {
+			if (key.equals(name)) {
+				return key;
+			}
+		}
+		return null;
+	}
+}
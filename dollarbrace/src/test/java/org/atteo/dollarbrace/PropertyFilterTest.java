@@ -28,13 +28,17 @@ import org.atteo.dollarbrace.PropertyNotFoundException;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -46,6 +50,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 public class PropertyFilterTest {
@@ -126,6 +131,52 @@ public class PropertyFilterTest {
 		DollarBrace.getFilter(new SystemPropertyResolver()).filter("${third}");
 	}
 
+	@Test(expected = ResolutionLimitExceededException.class)
+	public void shouldLimitExponentialExpansion() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		for (int i = 0; i < 40; i++) {
+			properties.setProperty("p" + i, "${p" + (i + 1) + "}${p" + (i + 1) + "}");
+		}
+		properties.setProperty("p40", "lol");
+
+		// when
+		DollarBrace.getFilter(properties).filter("${p0}");
+	}
+
+	@Test
+	public void shouldLimitExpandedLength() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("a", "0123456789");
+		PropertyFilter filter = DollarBrace.getFilter(new ResolutionLimits(10, 10, 25),
+				new PropertiesPropertyResolver(properties));
+
+		// then
+		assertThat(filter.filter("${a}${a}")).isEqualTo("01234567890123456789");
+		expectedEx.expect(ResolutionLimitExceededException.class);
+		expectedEx.expectMessage("Maximum expanded length of 25 characters exceeded: a");
+		filter.filter("${a}${a}${a}");
+	}
+
+	@Test
+	public void shouldLimitDepth() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		for (int i = 0; i < 10; i++) {
+			properties.setProperty("p" + i, "${p" + (i + 1) + "}");
+		}
+		properties.setProperty("p10", "value");
+		PropertyFilter filter = DollarBrace.getFilter(new ResolutionLimits(5, 100, 100),
+				new PropertiesPropertyResolver(properties));
+
+		// then
+		assertThat(filter.getProperty("p6")).isEqualTo("value");
+		expectedEx.expect(ResolutionLimitExceededException.class);
+		expectedEx.expectMessage("Maximum property resolution depth of 5 exceeded: p5");
+		filter.getProperty("p0");
+	}
+
 	@Test(expected = PropertyNotFoundException.class)
 	public void shouldNotReportCircularRecursion() throws PropertyNotFoundException {
 		// given
@@ -135,6 +186,369 @@ public class PropertyFilterTest {
 		String result = filter.filter("${oneof:${notfound},${notfound}}");
 	}
 
+	@Test
+	public void shouldReturnSameInstanceWithoutPlaceholders() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = DollarBrace.getFilter(new Properties());
+		String value = "no placeholders here: $ {}";
+
+		// when
+		String result = filter.filter(value);
+
+		// then
+		assertThat(result).isSameAs(value);
+	}
+
+	@Test
+	public void shouldResolveRepeatedPropertyOnce() throws PropertyNotFoundException {
+		// given
+		final Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("url", "http://${host}:${counter:}/");
+		final AtomicInteger resolutions = new AtomicInteger();
+		final AtomicInteger counter = new AtomicInteger();
+		class CounterPropertyResolver implements PrefixedPropertyResolver, VolatilePropertyResolver {
+			@Override
+			public String getPrefix() {
+				return "counter:";
+			}
+
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				return Integer.toString(counter.incrementAndGet());
+			}
+		}
+		PropertyFilter filter = DollarBrace.getFilter(new CounterPropertyResolver(),
+				new PropertiesPropertyResolver(properties) {
+			@Override
+			public String getProperty(String name) throws PropertyNotFoundException {
+				resolutions.incrementAndGet();
+				return super.getProperty(name);
+			}
+		});
+
+		// when
+		String result = filter.filter("${host} ${host} ${url} ${url}");
+
+		// then
+		assertThat(result).isEqualTo("localhost localhost http://localhost:1/ http://localhost:2/");
+		assertThat(resolutions.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldCacheOnlyNonVolatileNames() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger counter = new AtomicInteger();
+		PropertyResolver resolver = new CacheablePropertyResolver() {
+			@Override
+			public Cacheability getCacheability(String name) {
+				return "counter".equals(name) ? Cacheability.VOLATILE : Cacheability.CONSTANT;
+			}
+
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				return Integer.toString(counter.incrementAndGet());
+			}
+		};
+		CompoundPropertyResolver compound = new CompoundPropertyResolver(resolver, new RawPropertyResolver(),
+				new SystemPropertyResolver());
+		PropertyFilter filter = DollarBrace.getFilter(compound);
+
+		// when
+		String result = filter.filter("${counter} ${counter} ${constant} ${constant}");
+
+		// then
+		assertThat(result).isEqualTo("1 2 3 3");
+		assertThat(compound.getCacheability("raw:abc")).isEqualTo(Cacheability.CONSTANT);
+		assertThat(compound.getCacheability("constant")).isEqualTo(Cacheability.SNAPSHOT);
+		assertThat(compound.getCacheability("counter")).isEqualTo(Cacheability.VOLATILE);
+	}
+
+	@Test
+	public void shouldIgnoreCacheabilityOfResolversNotTried() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger calls = new AtomicInteger();
+		Properties properties = new Properties() {
+			@Override
+			public String getProperty(String key) {
+				calls.incrementAndGet();
+				return super.getProperty(key);
+			}
+		};
+		properties.setProperty("host", "localhost");
+		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(properties),
+				new VolatilePropertyResolver() {
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				throw new PropertyNotFoundException(name);
+			}
+		});
+
+		// when
+		String result = filter.filter("${host} ${host}");
+
+		// then
+		assertThat(result).isEqualTo("localhost localhost");
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldFoldConstantTemplate() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("url", "http://${host}/");
+		PropertyFilter filter = DollarBrace.getFilter(new RawPropertyResolver(),
+				new PropertiesPropertyResolver(properties));
+
+		// when
+		CompiledTemplate template = DollarBrace.compile(filter, "${url} ${raw:${host}}");
+		properties.setProperty("host", "changed");
+
+		// then
+		assertThat(template.isConstant()).isTrue();
+		assertThat(template.render()).isEqualTo("http://localhost/ ${host}");
+	}
+
+	@Test
+	public void shouldNotFoldResolversWithoutDeclaredCacheability() throws PropertyNotFoundException {
+		// given
+		final Map<String, String> state = new HashMap<>();
+		state.put("host", "localhost");
+		state.put("port", "80");
+		PropertyFilter filter = DollarBrace.getFilter(new PropertyResolver() {
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				if (!"host".equals(name)) {
+					throw new PropertyNotFoundException(name);
+				}
+				return state.get(name);
+			}
+		}, new SimplePropertyResolver() {
+			@Override
+			public String getProperty(String name) throws PropertyNotFoundException {
+				if (!"port".equals(name)) {
+					throw new PropertyNotFoundException(name);
+				}
+				return state.get(name);
+			}
+		});
+
+		// when
+		CompiledTemplate template = DollarBrace.compile(filter, "${host}:${port}");
+		state.put("host", "example.com");
+		state.put("port", "8080");
+
+		// then
+		assertThat(template.isConstant()).isFalse();
+		assertThat(template.render()).isEqualTo("example.com:8080");
+	}
+
+	@Test
+	public void shouldKeepDynamicPartsOfTemplate() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger counter = new AtomicInteger();
+		class CounterPropertyResolver implements PrefixedPropertyResolver, VolatilePropertyResolver {
+			@Override
+			public String getPrefix() {
+				return "counter:";
+			}
+
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				return Integer.toString(counter.incrementAndGet());
+			}
+		}
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		PropertyFilter filter = DollarBrace.getFilter(new CounterPropertyResolver(),
+				new PropertiesPropertyResolver(properties));
+
+		// when
+		CompiledTemplate template = DollarBrace.compile(filter, "${host}:${counter:}:${missing}");
+		properties.setProperty("host", "changed");
+		properties.setProperty("missing", "found");
+
+		// then
+		assertThat(template.isConstant()).isFalse();
+		assertThat(template.render()).isEqualTo("localhost:1:found");
+		assertThat(template.render()).isEqualTo("localhost:2:found");
+	}
+
+	@Test
+	public void shouldShareBaseValuesBetweenOverlays() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("port", "80");
+		properties.setProperty("url", "http://${host}:${port}/");
+		final AtomicInteger resolutions = new AtomicInteger();
+		LayeredPropertyResolver layered = new LayeredPropertyResolver(new PropertiesPropertyResolver(properties) {
+			@Override
+			public String getProperty(String name) throws PropertyNotFoundException {
+				resolutions.incrementAndGet();
+				return super.getProperty(name);
+			}
+		});
+		Map<String, String> first = new HashMap<>();
+		first.put("tenant", "first");
+		Map<String, String> second = new HashMap<>();
+		second.put("tenant", "second");
+		second.put("host", "${tenant}.example.com");
+
+		// when
+		String firstUrl = DollarBrace.getFilter(layered.overlay(first)).filter("${url}${tenant}");
+		int firstResolutions = resolutions.get();
+		String sharedUrl = DollarBrace.getFilter(layered.overlay(first)).filter("${url}${tenant}");
+		int sharedResolutions = resolutions.get();
+		String secondUrl = DollarBrace.getFilter(layered.overlay(second)).filter("${url}${tenant}");
+
+		// then
+		assertThat(firstUrl).isEqualTo("http://localhost:80/first");
+		assertThat(sharedUrl).isEqualTo("http://localhost:80/first");
+		assertThat(sharedResolutions).isEqualTo(firstResolutions);
+		assertThat(secondUrl).isEqualTo("http://second.example.com:80/second");
+		assertThat(resolutions.get()).isGreaterThan(sharedResolutions);
+	}
+
+	@Test
+	public void shouldResolveBaseValuesMissingFromBase() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("url", "http://${host}/");
+		LayeredPropertyResolver layered = new LayeredPropertyResolver(new PropertiesPropertyResolver(properties));
+		Map<String, String> overlay = new HashMap<>();
+		overlay.put("host", "example.com");
+
+		// when
+		String result = DollarBrace.getFilter(layered.overlay(overlay)).filter("${url}");
+
+		// then
+		assertThat(result).isEqualTo("http://example.com/");
+	}
+
+	@Test
+	public void shouldDeriveLayeredBaseValuesWithLimitsOfFilter() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("a", "${b}");
+		properties.setProperty("b", "${c}");
+		properties.setProperty("c", "value");
+		LayeredPropertyResolver layered = new LayeredPropertyResolver(new PropertiesPropertyResolver(properties));
+		PropertyResolver overlay = layered.overlay(new HashMap<String, String>());
+		PropertyFilter unlimited = DollarBrace.getFilter(ResolutionLimits.UNLIMITED, overlay);
+		PropertyFilter strict = DollarBrace.getFilter(new ResolutionLimits(2, 100, 1000), overlay);
+
+		// then
+		assertThat(unlimited.getProperty("a")).isEqualTo("value");
+		expectedEx.expect(ResolutionLimitExceededException.class);
+		strict.getProperty("a");
+	}
+
+	@Test
+	public void shouldPassUnfilteredNamesToLayeredBase() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("x", "1");
+		properties.setProperty("name1", "base");
+		properties.setProperty("value", "${name${index}}");
+		LayeredPropertyResolver layered = new LayeredPropertyResolver(new CompoundPropertyResolver(
+				new PropertiesPropertyResolver(properties), new RawPropertyResolver(), new OneOfPropertyResolver()));
+		Map<String, String> first = new HashMap<>();
+		first.put("index", "1");
+		Map<String, String> second = new HashMap<>();
+		second.put("index", "2");
+		second.put("name2", "overlay");
+		PropertyFilter firstFilter = DollarBrace.getFilter(layered.overlay(first));
+		PropertyFilter secondFilter = DollarBrace.getFilter(layered.overlay(second));
+
+		// when
+		String raw = firstFilter.filter("${raw:${x}}");
+		String oneof = firstFilter.filter("${oneof:${missing},b}");
+		String firstValue = firstFilter.filter("${value}");
+		String secondValue = secondFilter.filter("${value}");
+
+		// then
+		assertThat(raw).isEqualTo("${x}");
+		assertThat(oneof).isEqualTo("b");
+		assertThat(firstValue).isEqualTo("base");
+		assertThat(secondValue).isEqualTo("overlay");
+	}
+
+	@Test
+	public void defaultValue() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("fallback", "8080");
+		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(properties),
+				new RawPropertyResolver(), new OneOfPropertyResolver());
+
+		// when
+		String result = filter.filter("${host:-example.com}:${port:-${fallback}} ${empty:-} ${raw:a:-b}");
+		CompiledTemplate template = DollarBrace.compile(filter, "${port:-80}");
+		properties.setProperty("port", "443");
+
+		// then
+		assertThat(result).isEqualTo("localhost:8080  a:-b");
+		assertThat(filter.filter("${oneof:${missing:-x},y}")).isEqualTo("x");
+		assertThat(template.render()).isEqualTo("443");
+	}
+
+	@Test
+	public void shouldFilterCharSequence() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("url", "http://${host}/");
+		PropertyFilter filter = DollarBrace.getFilter(properties);
+		StringBuilder builder = new StringBuilder("url=${url} port=${port:-80} ${host${x:-}}");
+		CharBuffer buffer = CharBuffer.wrap("[header] host=${host}$ {} ${");
+		buffer.position(9);
+
+		// when
+		String result = DollarBrace.filter(filter, builder);
+		String bufferResult = DollarBrace.filter(filter, buffer);
+		String plainResult = DollarBrace.filter(filter, new StringBuilder("no placeholders"));
+
+		// then
+		assertThat(result).isEqualTo("url=http://localhost/ port=80 localhost");
+		assertThat(bufferResult).isEqualTo("host=localhost$ {} ${");
+		assertThat(plainResult).isEqualTo("no placeholders");
+	}
+
+	@Test
+	public void shouldFilterCharSequenceAndCompileWithCustomFilter() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = new PropertyFilter() {
+			@Override
+			public String filter(String value) {
+				return value.toUpperCase();
+			}
+
+			@Override
+			public String getProperty(String name) {
+				return name.toUpperCase();
+			}
+
+			@Override
+			public void filter(Element element) {
+			}
+
+			@Override
+			public void filterFile(Path source, Path destination) {
+			}
+		};
+
+		// when
+		String result = DollarBrace.filter(filter, new StringBuilder("${host}"));
+		String rendered = DollarBrace.compile(filter, "${host}").render();
+
+		// then
+		assertThat(result).isEqualTo("${HOST}");
+		assertThat(rendered).isEqualTo("${HOST}");
+	}
+
 	@Test
 	public void raw() throws PropertyNotFoundException {
 		// given
@@ -159,6 +573,32 @@ public class PropertyFilterTest {
 		assertThat(filter.filter("${oneof:1${abc}2,${second}1}")).isEqualTo("value1");
 		assertThat(filter.filter("${oneof:${second}}")).isEqualTo("value");
 		assertThat(filter.filter("${oneof:${abc},xx,yy,${cde}}")).isEqualTo("xx");
+		assertThat(filter.filter("${oneof:${abc}${second},}")).isEqualTo("");
+		assertThat(filter.filter("${oneof:a${second}b${second}c}")).isEqualTo("avaluebvaluec");
+	}
+
+	@Test
+	public void shouldSkipOneOfAlternativeWithMissingDefaultValue() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = DollarBrace.getFilter(new OneOfPropertyResolver(),
+				new PropertiesPropertyResolver(new Properties()));
+
+		// when
+		String result = filter.filter("${oneof:${a:-${b}},c}");
+
+		// then
+		assertThat(result).isEqualTo("c");
+	}
+
+	@Test
+	public void oneofNotFound() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = DollarBrace.getFilter(new OneOfPropertyResolver(),
+				new PropertiesPropertyResolver(new Properties()));
+
+		// then
+		expectedEx.expect(PropertyNotFoundException.class);
+		filter.filter("${oneof:${abc},${cde}}");
 	}
 
 	@Test
@@ -190,6 +630,86 @@ public class PropertyFilterTest {
 		assertThat(rootFilter.getProperty("g.h.i")).isEqualTo("test6");
 	}
 
+	@Test
+	public void compactXml() throws IOException, PropertyNotFoundException {
+		// given
+		String xml = "<config xmlns:x='urn:x'>"
+				+ "<a value='test'/>"
+				+ "<b>test2</b>"
+				+ "<c><d>test3</d><!-- comment --><![CDATA[cdata]]></c>"
+				+ "<e><f>test4</f><f>test5</f></e>"
+				+ "<g.h><i>test6</i></g.h>"
+				+ "<x:j>test7</x:j>"
+				+ "</config>";
+
+		PropertyFilter filter = DollarBrace.getFilter(new XmlPropertyResolver(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), true));
+		PropertyFilter rootFilter = DollarBrace.getFilter(new XmlPropertyResolver(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), false));
+
+		// then
+		assertThat(filter.getProperty("config.a.value")).isEqualTo("test");
+		assertThat(filter.getProperty("config.b")).isEqualTo("test2");
+		assertThat(filter.getProperty("config.c.d")).isEqualTo("test3");
+		assertThat(filter.getProperty("config.c")).isEqualTo("test3cdata");
+		assertThat(filter.getProperty("config.g.h.i")).isEqualTo("test6");
+		assertThat(filter.getProperty("config.x:j")).isEqualTo("test7");
+		assertThat(filter.getProperty("config.xmlns:x")).isEqualTo("urn:x");
+
+		assertThat(rootFilter.getProperty("a.value")).isEqualTo("test");
+		assertThat(rootFilter.getProperty("g.h.i")).isEqualTo("test6");
+		assertThat(rootFilter.getProperty("d")).isEqualTo("test3");
+	}
+
+	@Test(expected = PropertyNotFoundException.class)
+	public void compactXmlAmbiguous() throws IOException, PropertyNotFoundException {
+		// given
+		String xml = "<config><e><f>test4</f><f>test5</f></e></config>";
+		PropertyFilter filter = DollarBrace.getFilter(new XmlPropertyResolver(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), true));
+
+		// when
+		filter.getProperty("config.e.f");
+	}
+
+	@Test(expected = IOException.class)
+	public void shouldRejectDoctypeInCompactXml() throws IOException {
+		// given
+		Path secret = Paths.get("target", "secret.txt");
+		Files.write(secret, "secret".getBytes(StandardCharsets.UTF_8));
+		String xml = "<?xml version='1.0'?>"
+				+ "<!DOCTYPE config [<!ENTITY secret SYSTEM '" + secret.toUri() + "'>]>"
+				+ "<config><a>&secret;</a></config>";
+
+		// when
+		new XmlPropertyResolver(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), true);
+	}
+
+	@Test
+	public void mapped() throws IOException, PropertyNotFoundException {
+		// given
+		Path file = Paths.get("target", "mapped.properties");
+		Properties properties = new Properties();
+		properties.setProperty("a", "test");
+		properties.setProperty("b", "${a}2");
+		properties.setProperty("zażółć", "gęślą");
+		properties.setProperty("ab", "");
+		MappedPropertyResolver.write(properties, file);
+
+		// when
+		MappedPropertyResolver resolver = new MappedPropertyResolver(file);
+		PropertyFilter filter = DollarBrace.getFilter(resolver);
+
+		// then
+		assertThat(resolver.size()).isEqualTo(4);
+		assertThat(filter.getProperty("a")).isEqualTo("test");
+		assertThat(filter.getProperty("b")).isEqualTo("test2");
+		assertThat(filter.getProperty("zażółć")).isEqualTo("gęślą");
+		assertThat(filter.getProperty("ab")).isEqualTo("");
+		expectedEx.expect(PropertyNotFoundException.class);
+		filter.getProperty("c");
+	}
+
 	@Test(expected = PropertyNotFoundException.class)
 	public void shouldThrowWhenPropertyIsNotFound() throws PropertyNotFoundException {
 		// given
@@ -239,6 +759,185 @@ public class PropertyFilterTest {
 		assertThat(destination.toFile()).usingCharset(StandardCharsets.UTF_8).hasContent("key: value");
 	}
 
+	@Test
+	public void shouldSkipResolversWithoutProperty() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger firstCalls = new AtomicInteger();
+		Properties first = new Properties() {
+			@Override
+			public String getProperty(String key) {
+				firstCalls.incrementAndGet();
+				return super.getProperty(key);
+			}
+		};
+		first.setProperty("a", "${b}");
+		Properties second = new Properties();
+		second.setProperty("b", "value");
+		EnvironmentPropertyResolver environment = new EnvironmentPropertyResolver();
+		environment.setSummarized(true);
+		PropertiesPropertyResolver firstResolver = new PropertiesPropertyResolver(first);
+		firstResolver.setSummarized(true);
+		PropertiesPropertyResolver secondResolver = new PropertiesPropertyResolver(second);
+		secondResolver.setSummarized(true);
+		PropertyFilter filter = DollarBrace.getFilter(environment, firstResolver, secondResolver);
+
+		// when
+		String result = filter.filter("${a}");
+
+		// then
+		assertThat(result).isEqualTo("value");
+		assertThat(firstCalls.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void shouldFallBackWhenEnvironmentVariableIsUndefined() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("env.DOLLARBRACE_UNDEFINED_VARIABLE", "fallback");
+		PropertyFilter filter = DollarBrace.getFilter(new EnvironmentPropertyResolver(),
+				new PropertiesPropertyResolver(properties));
+
+		// when
+		String result = filter.filter("${env.DOLLARBRACE_UNDEFINED_VARIABLE}");
+
+		// then
+		assertThat(result).isEqualTo("fallback");
+	}
+
+	@Test
+	public void shouldNotSkipSubclassesOverridingGetProperty() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = DollarBrace.getFilter(new SystemPropertyResolver(),
+				new PropertiesPropertyResolver(new Properties()) {
+			@Override
+			public String getProperty(String name) throws PropertyNotFoundException {
+				if ("computed".equals(name)) {
+					return "42";
+				}
+				return super.getProperty(name);
+			}
+		});
+
+		// when
+		String result = filter.filter("${computed}");
+
+		// then
+		assertThat(result).isEqualTo("42");
+	}
+
+	@Test
+	public void shouldTryMostUsedResolverFirst() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger firstCalls = new AtomicInteger();
+		CompoundPropertyResolver resolver = new CompoundPropertyResolver();
+		resolver.addDisjointPropertyResolver(new PropertyResolver() {
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				firstCalls.incrementAndGet();
+				if (!name.equals("first")) {
+					throw new PropertyNotFoundException(name);
+				}
+				return "1";
+			}
+		});
+		resolver.addDisjointPropertyResolver(new PropertyResolver() {
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				if (!name.equals("second")) {
+					throw new PropertyNotFoundException(name);
+				}
+				return "2";
+			}
+		});
+		resolver.setAdaptiveOrdering(true);
+		PropertyFilter filter = DollarBrace.getFilter(resolver);
+
+		// when
+		for (int i = 0; i < 2000; i++) {
+			filter.getProperty("second");
+		}
+		firstCalls.set(0);
+		String second = filter.getProperty("second");
+		String first = filter.getProperty("first");
+
+		// then
+		assertThat(second).isEqualTo("2");
+		assertThat(first).isEqualTo("1");
+		assertThat(firstCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldKeepPrecedenceOfOverlappingResolversWithAdaptiveOrdering() throws PropertyNotFoundException {
+		// given
+		Properties overrides = new Properties();
+		overrides.setProperty("host", "override");
+		Properties defaults = new Properties();
+		defaults.setProperty("host", "default");
+		defaults.setProperty("path", "/");
+		Properties other = new Properties();
+		other.setProperty("port", "80");
+		CompoundPropertyResolver resolver = new CompoundPropertyResolver(new PropertiesPropertyResolver(overrides),
+				new PropertiesPropertyResolver(defaults));
+		resolver.addDisjointPropertyResolver(new PropertiesPropertyResolver(other));
+		resolver.setAdaptiveOrdering(true);
+		PropertyFilter filter = DollarBrace.getFilter(resolver);
+
+		// when
+		for (int i = 0; i < 5000; i++) {
+			filter.getProperty("path");
+			filter.getProperty("port");
+		}
+		String host = filter.getProperty("host");
+		String port = filter.getProperty("port");
+
+		// then
+		assertThat(host).isEqualTo("override");
+		assertThat(port).isEqualTo("80");
+	}
+
+	@Test
+	public void shouldAddResolversWhileFiltering() throws InterruptedException, PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("a", "${b}");
+		final CompoundPropertyResolver resolver = new CompoundPropertyResolver(
+				new PropertiesPropertyResolver(properties));
+		final PropertyFilter filter = DollarBrace.getFilter(resolver);
+		final List<Throwable> exceptions = new ArrayList<>();
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 10000; i++) {
+					try {
+						filter.getProperty("a");
+					} catch (PropertyNotFoundException e) {
+						// expected until resolved
+					}
+				}
+			}
+		};
+		thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				exceptions.add(e);
+			}
+		});
+
+		// when
+		thread.start();
+		for (int i = 0; i < 1000; i++) {
+			resolver.addPropertyResolver(new RawPropertyResolver());
+		}
+		Properties added = new Properties();
+		added.setProperty("b", "value");
+		resolver.addPropertyResolver(new PropertiesPropertyResolver(added));
+		thread.join();
+
+		// then
+		assertThat(exceptions).isEmpty();
+		assertThat(filter.getProperty("a")).isEqualTo("value");
+	}
+
 	@Test
 	public void shouldFilterConcurrently() throws InterruptedException {
 		final PropertyFilter filter = DollarBrace.getFilter(new PropertyResolver() {
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PropertyUsageIndexTest {
+	@Test
+	public void shouldFindAffectedOutputs() throws IOException {
+		// given
+		Path file = Paths.get("target", "usage.txt");
+		Files.write(file, "port=${port}".getBytes(StandardCharsets.UTF_8));
+		PropertyUsageIndex index = new PropertyUsageIndex();
+		index.addTemplate("server.xml", "<server url='${url}'/>");
+		index.addTemplate("client.xml", "<client name='${name}'/>");
+		index.addFile(file);
+		index.addProperty("url", "http://${host}:${port}/");
+		index.addProperty("port", "80");
+
+		// then
+		assertThat(index.getReferencedProperties("client.xml")).containsOnly("name");
+		assertThat(index.getAffectedOutputs("host")).containsOnly("server.xml");
+		assertThat(index.getAffectedOutputs("port")).containsOnly("server.xml", file.toString());
+		assertThat(index.getAffectedOutputs("name")).containsOnly("client.xml");
+		assertThat(index.getAffectedOutputs(Arrays.asList("url", "name"))).containsOnly("server.xml", "client.xml");
+		assertThat(index.getAffectedOutputs("unused")).isEmpty();
+	}
+
+	@Test
+	public void shouldTreatDynamicNamesAsAffectedByAnyChange() {
+		// given
+		PropertyUsageIndex index = new PropertyUsageIndex();
+		index.addTemplate("client.xml", "<client name='${name${index}}'/>");
+		index.addTemplate("server.xml", "<server url='${url}'/>");
+		index.addTemplate("static.xml", "<static/>");
+		index.addProperty("url", "http://${host${suffix}}/");
+		index.addProperty("name1", "first");
+
+		// then
+		assertThat(index.getReferencedProperties("client.xml")).containsOnly("name${index}", "index");
+		assertThat(index.getAffectedOutputs("name1")).containsOnly("client.xml", "server.xml");
+		assertThat(index.getAffectedOutputs("index")).containsOnly("client.xml", "server.xml");
+		assertThat(index.getAffectedOutputs(Arrays.<String>asList())).isEmpty();
+
+		// when
+		index.addTemplate("client.xml", "<client name='${name}'/>");
+		index.addProperty("url", "http://${host}/");
+
+		// then
+		assertThat(index.getAffectedOutputs("name1")).isEmpty();
+	}
+
+	@Test
+	public void shouldTrackPropertiesNestedInPrefixedResolverArguments() {
+		// given
+		PropertyUsageIndex index = new PropertyUsageIndex();
+		index.addPrefix("custom:");
+		index.addTemplate("client.xml", "<client name='${oneof:${name},default}'/>");
+		index.addTemplate("server.xml", "<server url='${url}'/>");
+		index.addProperty("url", "http://${custom:${host}}/");
+
+		// then
+		assertThat(index.getReferencedProperties("client.xml")).containsOnly("oneof:${name},default", "name");
+		assertThat(index.getAffectedOutputs("name")).containsOnly("client.xml");
+		assertThat(index.getAffectedOutputs("host")).containsOnly("server.xml");
+		assertThat(index.getAffectedOutputs("unrelated")).isEmpty();
+	}
+
+	@Test
+	public void shouldReplacePreviousReferences() {
+		// given
+		PropertyUsageIndex index = new PropertyUsageIndex();
+		index.addTemplate("output", "${a}");
+		index.addProperty("a", "${b}");
+
+		// when
+		index.addTemplate("output", "${c}");
+		index.addProperty("a", "constant");
+
+		// then
+		assertThat(index.getAffectedOutputs("a")).isEmpty();
+		assertThat(index.getAffectedOutputs("b")).isEmpty();
+		assertThat(index.getAffectedOutputs("c")).containsOnly("output");
+	}
+}
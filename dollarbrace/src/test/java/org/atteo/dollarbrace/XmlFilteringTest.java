@@ -21,7 +21,10 @@ import org.atteo.dollarbrace.PropertyNotFoundException;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -33,10 +36,14 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import org.custommonkey.xmlunit.Diff;
 import static org.custommonkey.xmlunit.XMLAssert.assertXMLIdentical;
 import org.junit.Test;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 public class XmlFilteringTest {
@@ -77,20 +84,158 @@ public class XmlFilteringTest {
 		assertXMLIdentical(new Diff(result, filter(properties, xml)), true);
 	}
 
-	private static String filter(Properties properties, String xml) throws IOException,
-			ParserConfigurationException, SAXException, TransformerConfigurationException,
-			TransformerException, PropertyNotFoundException {
+	@Test
+	public void parallel() throws SAXException, IOException, ParserConfigurationException,
+			TransformerConfigurationException, TransformerException, PropertyNotFoundException {
+		StringBuilder xml = new StringBuilder("<outer>");
+		StringBuilder result = new StringBuilder("<outer>");
+		for (int i = 0; i < 1000; i++) {
+			xml.append("<inner attribute='${value1}' plain='value'>${value2} ").append(i).append("</inner>");
+			result.append("<inner attribute='result1' plain='value'>result2 ").append(i).append("</inner>");
+		}
+		xml.append("</outer>");
+		result.append("</outer>");
+		Properties properties = new Properties();
+		properties.setProperty("value1", "result1");
+		properties.setProperty("value2", "result2");
+
+		Document document = parse(xml.toString());
+		XmlFiltering filtering = new XmlFiltering(DollarBrace.getFilter(properties));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		filtering.setForkJoinPool(pool);
+		filtering.setParallelThreshold(16);
+
+		try {
+			filtering.filterElement(document.getDocumentElement());
+		} finally {
+			pool.shutdown();
+		}
+
+		assertXMLIdentical(new Diff(result.toString(), toString(document)), true);
+	}
+
+	@Test(expected = PropertyNotFoundException.class)
+	public void parallelNotFound() throws SAXException, IOException, ParserConfigurationException,
+			PropertyNotFoundException {
+		StringBuilder xml = new StringBuilder("<outer>");
+		for (int i = 0; i < 100; i++) {
+			xml.append("<inner>${value").append(i).append("}</inner>");
+		}
+		xml.append("</outer>");
+		Properties properties = new Properties();
+		properties.setProperty("value0", "result");
+
+		Document document = parse(xml.toString());
+		XmlFiltering filtering = new XmlFiltering(DollarBrace.getFilter(properties));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		filtering.setForkJoinPool(pool);
+		filtering.setParallelThreshold(8);
+
+		try {
+			filtering.filterElement(document.getDocumentElement());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void deduplicate() throws SAXException, IOException, ParserConfigurationException,
+			PropertyNotFoundException {
+		StringBuilder xml = new StringBuilder("<outer>");
+		for (int i = 0; i < 100; i++) {
+			xml.append("<inner host='${host}'>${host}:${port}</inner>");
+		}
+		xml.append("</outer>");
+		final AtomicInteger resolutions = new AtomicInteger();
+		PropertyResolver resolver = new PropertyResolver() {
+			@Override
+			public String resolveProperty(String name, PropertyFilter filter) throws PropertyNotFoundException {
+				resolutions.incrementAndGet();
+				return "host".equals(name) ? "localhost" : "8080";
+			}
+		};
+
+		Document document = parse(xml.toString());
+		XmlFiltering filtering = new XmlFiltering(DollarBrace.getFilter(resolver));
+		filtering.setDeduplicate(true);
+		filtering.filterElement(document.getDocumentElement());
+
+		assertThat(resolutions.get()).isEqualTo(3);
+		NodeList inners = document.getElementsByTagName("inner");
+		Element first = (Element) inners.item(0);
+		Element last = (Element) inners.item(inners.getLength() - 1);
+		assertThat(last.getTextContent()).isEqualTo("localhost:8080");
+		assertThat(last.getAttribute("host")).isSameAs(first.getAttribute("host"));
+		assertThat(last.getTextContent()).isSameAs(first.getTextContent());
+	}
+
+	@Test
+	public void shouldReportChangedNodes() throws SAXException, IOException, ParserConfigurationException,
+			PropertyNotFoundException {
+		Document document = parse("<outer plain='value'><inner attribute='${value1}'>text</inner>"
+				+ "<inner>${value2}</inner></outer>");
+		Properties properties = new Properties();
+		properties.setProperty("value1", "result1");
+		properties.setProperty("value2", "result2");
+		XmlFiltering filtering = new XmlFiltering(DollarBrace.getFilter(properties));
+
+		List<Node> changed = filtering.filterElement(document.getDocumentElement());
+
+		assertThat(changed).hasSize(2);
+		assertThat(changed.get(0).getNodeValue()).isEqualTo("result1");
+		assertThat(changed.get(1).getNodeValue()).isEqualTo("result2");
+		assertThat(filtering.filterElement(document.getDocumentElement())).isEmpty();
+	}
+
+	@Test
+	public void shouldFilterOnlyDirtyNodes() throws SAXException, IOException, ParserConfigurationException,
+			PropertyNotFoundException {
+		Document document = parse("<outer><a>${value}</a><b>text</b></outer>");
+		Properties properties = new Properties();
+		properties.setProperty("value", "result");
+		XmlFiltering filtering = new XmlFiltering(DollarBrace.getFilter(properties));
+		filtering.filterElement(document.getDocumentElement());
+
+		Element a = (Element) document.getElementsByTagName("a").item(0);
+		Element b = (Element) document.getElementsByTagName("b").item(0);
+		a.setTextContent("${value}");
+		b.setTextContent("${value}");
+		b.setAttribute("attribute", "${value}");
+		filtering.markDirty(b);
+		filtering.markDirty(b.getAttributeNode("attribute"));
+
+		List<Node> changed = filtering.filterDirty();
+
+		assertThat(changed).hasSize(2);
+		assertThat(a.getTextContent()).isEqualTo("${value}");
+		assertThat(b.getTextContent()).isEqualTo("result");
+		assertThat(b.getAttribute("attribute")).isEqualTo("result");
+		assertThat(filtering.filterDirty()).isEmpty();
+	}
+
+	private static Document parse(String xml) throws ParserConfigurationException, SAXException, IOException {
 		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 		DocumentBuilder builder = factory.newDocumentBuilder();
 
-		Document document = builder.parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
-
-		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(properties));
-		filter.filter(document.getDocumentElement());
+		return builder.parse(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+	}
 
+	private static String toString(Document document) throws TransformerConfigurationException,
+			TransformerException {
 		Transformer transformer = TransformerFactory.newInstance().newTransformer();
 		StringWriter writer = new StringWriter();
 		transformer.transform(new DOMSource(document), new StreamResult(writer));
 		return writer.toString();
 	}
+
+	private static String filter(Properties properties, String xml) throws IOException,
+			ParserConfigurationException, SAXException, TransformerConfigurationException,
+			TransformerException, PropertyNotFoundException {
+		Document document = parse(xml);
+
+		PropertyFilter filter = DollarBrace.getFilter(new PropertiesPropertyResolver(properties));
+		filter.filter(document.getDocumentElement());
+
+		return toString(document);
+	}
 }
@@ -22,6 +22,8 @@ import java.util.List;
 import org.atteo.dollarbrace.spi.Tokenizer.Token;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -58,4 +60,52 @@ public class TokenizerTest {
 		tokens = Tokenizer.splitIntoTokens("${abc} ${a");
 		assertEquals(" ${a", tokens.get(1).getValue());
 	}
+
+	@Test
+	public void withoutPlaceholders() {
+		String input = "abc $ { } $a{";
+		List<Token> tokens = Tokenizer.splitIntoTokens(input);
+		assertEquals(1, tokens.size());
+		assertFalse(tokens.get(0).isProperty());
+		assertSame(input, tokens.get(0).getValue());
+		assertFalse(Tokenizer.hasPlaceholders(input));
+
+		assertEquals(0, Tokenizer.splitIntoTokens("").size());
+	}
+
+	@Test
+	public void defaultValue() {
+		List<Token> tokens = Tokenizer.splitIntoTokens("${a:-b${c:-d}} ${e${f:-g}} ${raw:h:-i} ${j:k}");
+		assertEquals(7, tokens.size());
+		assertEquals("a", tokens.get(0).getValue());
+		assertEquals("b${c:-d}", tokens.get(0).getDefaultValue());
+		assertEquals("e${f:-g}", tokens.get(2).getValue());
+		assertNull(tokens.get(2).getDefaultValue());
+		assertEquals("raw:h:-i", tokens.get(4).getValue());
+		assertNull(tokens.get(4).getDefaultValue());
+		assertEquals("j:k", tokens.get(6).getValue());
+		assertNull(tokens.get(6).getDefaultValue());
+	}
+
+	@Test
+	public void scanner() {
+		StringBuilder input = new StringBuilder("a${b}c${d:-e}${f");
+		Tokenizer.Scanner scanner = new Tokenizer.Scanner(input);
+
+		assertTrue(scanner.find());
+		assertEquals(1, scanner.getStart());
+		assertEquals(5, scanner.getEnd());
+		assertEquals("b", scanner.getName());
+		assertNull(scanner.getDefaultValue());
+
+		assertTrue(scanner.find());
+		assertEquals(6, scanner.getStart());
+		assertEquals(13, scanner.getEnd());
+		assertEquals("d", scanner.getName());
+		assertEquals("e", scanner.getDefaultValue());
+
+		assertFalse(scanner.find());
+		assertTrue(Tokenizer.hasPlaceholders(input));
+		assertFalse(Tokenizer.hasPlaceholders(new StringBuilder("$a{ $")));
+	}
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace.janino;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing statistics of the evaluations of single Java expression.
+ * <p>
+ * The time includes the compilation of the expression, if it was not precompiled.
+ * </p>
+ */
+public class EvaluationStatistics {
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	void record(long nanos, boolean timeout) {
+		count.incrementAndGet();
+		if (timeout) {
+			timeouts.incrementAndGet();
+		}
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Returns the number of evaluations, including the ones which timed out.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Returns the number of evaluations which were cancelled after exceeding the time limit.
+	 */
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+
+	/**
+	 * Returns the total time spent waiting for the evaluations.
+	 */
+	public long getTotalTime(TimeUnit unit) {
+		return unit.convert(totalNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the longest time spent waiting for single evaluation.
+	 */
+	public long getMaxTime(TimeUnit unit) {
+		return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+	}
+}
@@ -14,12 +14,39 @@
 package org.atteo.dollarbrace.janino;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nullable;
 
 import org.atteo.dollarbrace.PrefixedPropertyResolver;
 import org.atteo.dollarbrace.PropertyFilter;
 import org.atteo.dollarbrace.PropertyNotFoundException;
 import org.atteo.dollarbrace.PropertyResolver;
+import org.atteo.dollarbrace.VolatilePropertyResolver;
+import org.atteo.dollarbrace.spi.Tokenizer;
+import org.atteo.dollarbrace.spi.Tokenizer.Token;
 import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.ClassBodyEvaluator;
 import org.codehaus.janino.ExpressionEvaluator;
 
 /**
@@ -29,10 +56,31 @@ import org.codehaus.janino.ExpressionEvaluator;
  * By default not recognized properties are silently ignored. To force to treat
  * the expression as Java prefix it with 'java:'.
  * </p>
+ * <p>
+ * The resolver is {@link VolatilePropertyResolver volatile}, expressions are evaluated every time they are referenced.
+ * </p>
+ * <p>
+ * Every expression is compiled into separate class when it is first evaluated. To avoid paying for the compilation
+ * of each expression separately, the expressions used by a set of templates can be {@link #precompile(Iterable)
+ * precompiled} as the methods of a single class.
+ * </p>
+ * <p>
+ * By default expressions are evaluated on the filtering thread without any time limit.
+ * When {@link #setTimeout(long, TimeUnit) the timeout} is set, the expression is evaluated on
+ * {@link #setExecutor(ExecutorService) the executor} and interrupted when it does not finish in time.
+ * The property is then reported as not found, so single slow expression does not stall the whole filtering.
+ * Expressions are still compiled on the filtering thread, so the names which are not valid Java expressions
+ * are rejected without involving the executor.
+ * </p>
  */
-public class JaninoPropertyResolver implements PrefixedPropertyResolver {
+public class JaninoPropertyResolver implements PrefixedPropertyResolver, VolatilePropertyResolver {
 	private static final String prefix = "java:";
 	private boolean useWithoutPrefix = false;
+	private volatile Map<String, Method> precompiled = Collections.emptyMap();
+	private volatile long timeoutNanos = 0;
+	private volatile ExecutorService executor;
+	private volatile boolean collectStatistics = false;
+	private final ConcurrentMap<String, EvaluationStatistics> statistics = new ConcurrentHashMap<>();
 
 	public JaninoPropertyResolver() {
 	}
@@ -54,6 +102,157 @@ public class JaninoPropertyResolver implements PrefixedPropertyResolver {
 		return prefix;
 	}
 
+	/**
+	 * Sets the maximum time of single expression evaluation.
+	 * <p>
+	 * When the evaluation does not finish in time, it is interrupted and {@link PropertyNotFoundException}
+	 * caused by {@link TimeoutException} is thrown. Note that the expression which ignores interruption
+	 * still occupies the executor thread until it finishes.
+	 * </p>
+	 * @param timeout maximum evaluation time, zero means no limit
+	 * @param unit unit of the timeout
+	 */
+	public void setTimeout(long timeout, TimeUnit unit) {
+		this.timeoutNanos = unit.toNanos(timeout);
+	}
+
+	/**
+	 * Sets the executor used to evaluate the expressions.
+	 * <p>
+	 * When the executor is set, the filtering thread waits for the evaluation, for no longer than
+	 * {@link #setTimeout(long, TimeUnit) the timeout}. Use the executor with limited number of threads
+	 * to bound the resources used by the expressions. If the executor rejects the evaluation, the property
+	 * is reported as not found. If the timeout is set without the executor, expressions are evaluated
+	 * on the shared pool of daemon threads, with one thread per processor and the queue of limited size.
+	 * </p>
+	 * @param executor executor service, or null to evaluate on the filtering thread when no timeout is set
+	 */
+	public void setExecutor(@Nullable ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Sets whether the timing {@link #getStatistics() statistics} should be collected for each expression.
+	 * @param collectStatistics when true, statistics are collected
+	 */
+	public void setCollectStatistics(boolean collectStatistics) {
+		this.collectStatistics = collectStatistics;
+	}
+
+	/**
+	 * Returns timing statistics of the evaluated expressions, keyed by the expression before its placeholders
+	 * are filtered. The time includes the compilation of the expressions which were not precompiled.
+	 * Expressions which do not compile are not recorded.
+	 * @return live view of the statistics, empty unless {@link #setCollectStatistics(boolean) enabled}
+	 */
+	public Map<String, EvaluationStatistics> getStatistics() {
+		return Collections.unmodifiableMap(statistics);
+	}
+
+	/**
+	 * Compiles the Java expressions found in the values of given properties.
+	 * @see #precompile(Iterable)
+	 */
+	public void precompile(Properties properties) {
+		List<String> inputs = new ArrayList<>();
+		for (String name : properties.stringPropertyNames()) {
+			inputs.add(properties.getProperty(name));
+		}
+		precompile(inputs);
+	}
+
+	/**
+	 * Compiles the Java expressions found in given templates or property values.
+	 * <p>
+	 * All the <code>${java:...}</code> placeholders, including nested ones and the ones in the default values,
+	 * are compiled as the methods of a single class in one compiler run. Only the expressions which do not contain
+	 * placeholders themselves can be precompiled, the remaining ones are still compiled when evaluated.
+	 * If some expression does not compile, the batch is split in halves which are compiled separately,
+	 * so a single invalid expression costs a number of compiler runs logarithmic in the number of expressions.
+	 * The invalid expressions are left to report the error when evaluated.
+	 * </p>
+	 * @param inputs templates or property values
+	 */
+	public synchronized void precompile(Iterable<String> inputs) {
+		Set<String> expressions = new LinkedHashSet<>();
+		for (String input : inputs) {
+			findExpressions(input, expressions);
+		}
+		expressions.removeAll(precompiled.keySet());
+		if (expressions.isEmpty()) {
+			return;
+		}
+
+		Map<String, Method> methods = new HashMap<>(precompiled);
+		compileValid(new ArrayList<>(expressions), methods);
+		precompiled = methods;
+	}
+
+	/**
+	 * Compiles given expressions, bisecting the batch when it does not compile.
+	 */
+	private static void compileValid(List<String> expressions, Map<String, Method> methods) {
+		try {
+			methods.putAll(compile(expressions));
+		} catch (CompileException e) {
+			if (expressions.size() == 1) {
+				// reported when the expression is evaluated
+				return;
+			}
+			int middle = expressions.size() / 2;
+			compileValid(expressions.subList(0, middle), methods);
+			compileValid(expressions.subList(middle, expressions.size()), methods);
+		}
+	}
+
+	boolean isPrecompiled(String expression) {
+		return precompiled.containsKey(expression);
+	}
+
+	private static void findExpressions(String input, Set<String> expressions) {
+		if (!Tokenizer.hasPlaceholders(input)) {
+			return;
+		}
+		for (Token token : Tokenizer.splitIntoTokens(input)) {
+			if (!token.isProperty()) {
+				continue;
+			}
+			String name = token.getValue();
+			if (name.startsWith(prefix) && !Tokenizer.hasPlaceholders(name)) {
+				expressions.add(name.substring(prefix.length()).trim());
+			} else {
+				findExpressions(name, expressions);
+			}
+			if (token.getDefaultValue() != null) {
+				findExpressions(token.getDefaultValue(), expressions);
+			}
+		}
+	}
+
+	/**
+	 * Compiles given expressions as the static methods of a single class.
+	 */
+	private static Map<String, Method> compile(List<String> expressions) throws CompileException {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < expressions.size(); i++) {
+			body.append("public static Object e").append(i).append("() throws Exception {\n")
+					.append("return ").append(expressions.get(i)).append(";\n}\n");
+		}
+		ClassBodyEvaluator evaluator = new ClassBodyEvaluator();
+		evaluator.cook(body.toString());
+		Class<?> clazz = evaluator.getClazz();
+
+		Map<String, Method> methods = new HashMap<>();
+		for (int i = 0; i < expressions.size(); i++) {
+			try {
+				methods.put(expressions.get(i), clazz.getMethod("e" + i));
+			} catch (NoSuchMethodException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return methods;
+	}
+
 	@Override
 	public String resolveProperty(String name, PropertyFilter resolver) throws PropertyNotFoundException {
 		boolean throwErrors = false;
@@ -63,19 +262,138 @@ public class JaninoPropertyResolver implements PrefixedPropertyResolver {
 		} else if (!useWithoutPrefix) {
 			throw new PropertyNotFoundException(name);
 		}
+		String template = name.trim();
 		name = resolver.filter(name);
 		name = name.trim();
-		ExpressionEvaluator evaluator = new ExpressionEvaluator();
-		evaluator.setExpressionType(Object.class);
-		evaluator.setThrownExceptions(new Class[] { Exception.class });
+		boolean collect = collectStatistics;
+		long start = collect ? System.nanoTime() : 0;
+		Method method;
 		try {
-			evaluator.cook(name);
-			return evaluator.evaluate(new Object[] {}).toString();
-		} catch (CompileException | InvocationTargetException e) {
+			method = compile(name);
+		} catch (CompileException e) {
 			if (!throwErrors) {
 				throw new PropertyNotFoundException(name);
 			}
 			throw new RuntimeException(e);
 		}
+		boolean timeout = false;
+		try {
+			Object result;
+			ExecutorService service = executor;
+			long timeoutNanos = this.timeoutNanos;
+			if (service == null && timeoutNanos == 0) {
+				result = evaluate(method);
+			} else {
+				result = evaluateBounded(name, method, service != null ? service : DefaultExecutor.INSTANCE,
+						timeoutNanos);
+			}
+			return result.toString();
+		} catch (InvocationTargetException e) {
+			if (!throwErrors) {
+				throw new PropertyNotFoundException(name);
+			}
+			throw new RuntimeException(e);
+		} catch (TimeoutException e) {
+			timeout = true;
+			throw new PropertyNotFoundException(name, e);
+		} finally {
+			if (collect) {
+				EvaluationStatistics expressionStatistics = statistics.get(template);
+				if (expressionStatistics == null) {
+					statistics.putIfAbsent(template, new EvaluationStatistics());
+					expressionStatistics = statistics.get(template);
+				}
+				expressionStatistics.record(System.nanoTime() - start, timeout);
+			}
+		}
+	}
+
+	/**
+	 * Returns the static method evaluating given expression, compiling it if it was not precompiled.
+	 */
+	private Method compile(String expression) throws CompileException {
+		Method method = precompiled.get(expression);
+		if (method != null) {
+			return method;
+		}
+		ExpressionEvaluator evaluator = new ExpressionEvaluator();
+		evaluator.setExpressionType(Object.class);
+		evaluator.setThrownExceptions(new Class[] { Exception.class });
+		evaluator.cook(expression);
+		return evaluator.getMethod();
+	}
+
+	private static Object evaluate(Method method) throws InvocationTargetException {
+		try {
+			return method.invoke(null);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Object evaluateBounded(String expression, final Method method, ExecutorService service,
+			long timeoutNanos) throws InvocationTargetException, TimeoutException, PropertyNotFoundException {
+		Future<Object> future;
+		try {
+			future = service.submit(new Callable<Object>() {
+				@Override
+				public Object call() throws Exception {
+					return evaluate(method);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			throw new PropertyNotFoundException(expression, e);
+		}
+		try {
+			if (timeoutNanos == 0) {
+				return future.get();
+			}
+			return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PropertyNotFoundException(expression, e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof InvocationTargetException) {
+				throw (InvocationTargetException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Pool of daemon threads used when the timeout is set without the executor.
+	 * <p>
+	 * The number of threads is bounded, so the expressions which ignore interruption cannot exhaust
+	 * the threads of the application. When all the threads are busy and the queue is full,
+	 * the evaluation is rejected.
+	 * </p>
+	 */
+	private static class DefaultExecutor {
+		private static final int QUEUE_SIZE = 1024;
+		private static final ExecutorService INSTANCE = create();
+
+		private static ExecutorService create() {
+			int threads = Runtime.getRuntime().availableProcessors();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "dollarbrace-janino");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executor.allowCoreThreadTimeOut(true);
+			return executor;
+		}
 	}
 }
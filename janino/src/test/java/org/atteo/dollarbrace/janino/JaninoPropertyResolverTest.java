@@ -13,9 +13,18 @@
  */
 package org.atteo.dollarbrace.janino;
 
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import org.atteo.dollarbrace.DollarBrace;
 import org.atteo.dollarbrace.PropertiesPropertyResolver;
 import org.atteo.dollarbrace.PropertyFilter;
@@ -93,4 +102,169 @@ public class JaninoPropertyResolverTest {
 		filter.getProperty("java: java.lang.String.class.getResource(\"/java/lang/String.class\")"
 				+ ".toURI().toString()");
 	}
+
+	@Test
+	public void shouldEvaluateEveryTime() throws PropertyNotFoundException {
+		// given
+		PropertyFilter filter = DollarBrace.getFilter(new JaninoPropertyResolver());
+
+		// when
+		String result = filter.filter("${java:java.util.UUID.randomUUID()} ${java:java.util.UUID.randomUUID()}");
+
+		// then
+		String[] values = result.split(" ");
+		assertThat(values[0]).isNotEqualTo(values[1]);
+	}
+
+	@Test
+	public void shouldPrecompileExpressions() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("a", "${java:3+3}");
+		properties.setProperty("b", "${test${java:2-1}:-${java:\"x\".length()}}");
+		properties.setProperty("c", "${java:${a}*2}");
+		JaninoPropertyResolver janino = new JaninoPropertyResolver();
+
+		// when
+		janino.precompile(properties);
+		janino.precompile(Arrays.asList("${java:java.util.UUID.randomUUID()} ${java: 3+3 }"));
+		PropertyFilter filter = DollarBrace.getFilter(janino, new PropertiesPropertyResolver(properties));
+
+		// then
+		assertThat(janino.isPrecompiled("3+3")).isTrue();
+		assertThat(janino.isPrecompiled("2-1")).isTrue();
+		assertThat(janino.isPrecompiled("\"x\".length()")).isTrue();
+		assertThat(janino.isPrecompiled("java.util.UUID.randomUUID()")).isTrue();
+		assertThat(filter.getProperty("a")).isEqualTo("6");
+		assertThat(filter.getProperty("b")).isEqualTo("1");
+		assertThat(filter.getProperty("c")).isEqualTo("12");
+		String[] values = filter.filter("${java:java.util.UUID.randomUUID()} ${java:java.util.UUID.randomUUID()}")
+				.split(" ");
+		assertThat(values[0]).isNotEqualTo(values[1]);
+	}
+
+	@Test
+	public void shouldPrecompileValidExpressionsWhenSomeAreInvalid() throws PropertyNotFoundException {
+		// given
+		JaninoPropertyResolver janino = new JaninoPropertyResolver();
+
+		// when
+		janino.precompile(Arrays.asList("${java:1+1} ${java:asdf} ${java:2+2}", "${java:3+3} ${java:qwer}"));
+		PropertyFilter filter = DollarBrace.getFilter(janino);
+
+		// then
+		assertThat(janino.isPrecompiled("1+1")).isTrue();
+		assertThat(janino.isPrecompiled("2+2")).isTrue();
+		assertThat(janino.isPrecompiled("3+3")).isTrue();
+		assertThat(janino.isPrecompiled("asdf")).isFalse();
+		assertThat(janino.isPrecompiled("qwer")).isFalse();
+		assertThat(filter.getProperty("java:2+2")).isEqualTo("4");
+	}
+
+	public static String sleep(long millis) throws InterruptedException {
+		Thread.sleep(millis);
+		return "awake";
+	}
+
+	@Test
+	public void shouldCancelSlowEvaluation() {
+		// given
+		JaninoPropertyResolver janino = new JaninoPropertyResolver();
+		janino.setTimeout(100, TimeUnit.MILLISECONDS);
+		janino.setCollectStatistics(true);
+		PropertyFilter filter = DollarBrace.getFilter(janino);
+		String expression = JaninoPropertyResolverTest.class.getName() + ".sleep(60000)";
+
+		// when
+		long start = System.nanoTime();
+		try {
+			filter.getProperty("java:" + expression);
+			fail("Expected timeout");
+		} catch (PropertyNotFoundException e) {
+			// then
+			assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+		}
+		assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(30));
+		assertThat(janino.getStatistics().get(expression).getTimeouts()).isEqualTo(1);
+	}
+
+	@Test
+	public void shouldCollectStatistics() throws PropertyNotFoundException {
+		// given
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		JaninoPropertyResolver janino = new JaninoPropertyResolver();
+		janino.setExecutor(executor);
+		janino.setTimeout(1, TimeUnit.MINUTES);
+		janino.setCollectStatistics(true);
+		PropertyFilter filter = DollarBrace.getFilter(janino);
+
+		// when
+		String result;
+		try {
+			result = filter.filter("${java:" + JaninoPropertyResolverTest.class.getName() + ".sleep(10)} ${java:3+3}"
+					+ " ${java:3+3}");
+		} finally {
+			executor.shutdown();
+		}
+
+		// then
+		assertThat(result).isEqualTo("awake 6 6");
+		EvaluationStatistics statistics = janino.getStatistics().get("3+3");
+		assertThat(statistics.getCount()).isEqualTo(2);
+		assertThat(statistics.getTimeouts()).isEqualTo(0);
+		assertThat(janino.getStatistics().get(JaninoPropertyResolverTest.class.getName() + ".sleep(10)")
+				.getMaxTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(10);
+	}
+
+	@Test
+	public void shouldKeyStatisticsByUnfilteredExpression() throws PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		JaninoPropertyResolver janino = new JaninoPropertyResolver();
+		janino.setCollectStatistics(true);
+		PropertyFilter filter = DollarBrace.getFilter(janino, new PropertiesPropertyResolver(properties));
+
+		// when
+		for (int i = 0; i < 3; i++) {
+			properties.setProperty("x", Integer.toString(i));
+			filter.filter("${java:${x}*2}");
+		}
+
+		// then
+		assertThat(janino.getStatistics().keySet()).containsOnly("${x}*2");
+		assertThat(janino.getStatistics().get("${x}*2").getCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void shouldNotSubmitNamesWhichAreNotExpressions() throws PropertyNotFoundException {
+		// given
+		final AtomicInteger submitted = new AtomicInteger();
+		ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>()) {
+			@Override
+			public void execute(Runnable command) {
+				submitted.incrementAndGet();
+				super.execute(command);
+			}
+		};
+		Properties properties = new Properties();
+		properties.setProperty("host", "example.com");
+		JaninoPropertyResolver janino = new JaninoPropertyResolver(true);
+		janino.setExecutor(executor);
+		janino.setCollectStatistics(true);
+		PropertyFilter filter = DollarBrace.getFilter(janino, new PropertiesPropertyResolver(properties));
+
+		// when
+		String result;
+		try {
+			result = filter.filter("${host} ${1+1}");
+		} finally {
+			executor.shutdown();
+		}
+
+		// then
+		assertThat(result).isEqualTo("example.com 2");
+		assertThat(submitted.get()).isEqualTo(1);
+		assertThat(janino.getStatistics().keySet()).containsOnly("1+1");
+	}
 }
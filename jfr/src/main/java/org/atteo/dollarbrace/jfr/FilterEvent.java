@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import org.atteo.dollarbrace.spi.Tracer;
+
+@Name("org.atteo.dollarbrace.Filter")
+@Label("Filter")
+@Description("Call of the public filtering method")
+@Category("DollarBrace")
+@Enabled(false)
+@StackTrace(false)
+class FilterEvent extends jdk.jfr.Event implements Tracer.Span {
+	@Label("Operation")
+	String operation;
+
+	@Label("Input Length")
+	@Description("Length of the filtered input, or -1 if unknown")
+	long length;
+
+	@Override
+	public void close() {
+		commit();
+	}
+}
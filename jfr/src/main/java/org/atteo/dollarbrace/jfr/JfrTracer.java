@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace.jfr;
+
+import org.atteo.dollarbrace.PropertyResolver;
+import org.atteo.dollarbrace.spi.Tracer;
+
+/**
+ * Emits JDK Flight Recorder events for filtering and property resolution.
+ * <p>
+ * Registered as the {@link Tracer} service, so it is enough to put this module on the classpath.
+ * The events are disabled by default, enable them in the recording settings:
+ * <code>org.atteo.dollarbrace.Filter</code>, <code>org.atteo.dollarbrace.Resolution</code>
+ * and <code>org.atteo.dollarbrace.Resolver</code>. When the events are not recorded,
+ * no event is created and only the check whether the event is enabled is performed.
+ * </p>
+ */
+public class JfrTracer implements Tracer {
+	private static final jdk.jfr.EventType FILTER = jdk.jfr.EventType.getEventType(FilterEvent.class);
+	private static final jdk.jfr.EventType RESOLUTION = jdk.jfr.EventType.getEventType(ResolutionEvent.class);
+	private static final jdk.jfr.EventType RESOLVER = jdk.jfr.EventType.getEventType(ResolverEvent.class);
+
+	@Override
+	public Span startFilter(String operation, long length) {
+		if (!FILTER.isEnabled()) {
+			return null;
+		}
+		FilterEvent event = new FilterEvent();
+		event.operation = operation;
+		event.length = length;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public Span startResolution(String name, PropertyResolver resolver, int depth, boolean cacheHit) {
+		if (!RESOLUTION.isEnabled()) {
+			return null;
+		}
+		ResolutionEvent event = new ResolutionEvent();
+		event.propertyName = name;
+		event.resolverClass = resolver.getClass();
+		event.depth = depth;
+		event.cacheHit = cacheHit;
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public Span startResolver(String name, PropertyResolver resolver) {
+		if (!RESOLVER.isEnabled()) {
+			return null;
+		}
+		ResolverEvent event = new ResolverEvent();
+		event.propertyName = name;
+		event.resolverClass = resolver.getClass();
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Atteo.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.atteo.dollarbrace.jfr;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.atteo.dollarbrace.DollarBrace;
+import org.atteo.dollarbrace.PropertiesPropertyResolver;
+import org.atteo.dollarbrace.PropertyFilter;
+import org.atteo.dollarbrace.PropertyNotFoundException;
+import org.atteo.dollarbrace.SystemPropertyResolver;
+import org.junit.Test;
+
+public class JfrTracerTest {
+	@Test
+	public void shouldRecordEvents() throws IOException, PropertyNotFoundException {
+		// given
+		Properties properties = new Properties();
+		properties.setProperty("host", "localhost");
+		properties.setProperty("url", "http://${host}/${host}");
+		PropertyFilter filter = DollarBrace.getFilter(new SystemPropertyResolver(),
+				new PropertiesPropertyResolver(properties));
+		Path file = Paths.get("target", "events.jfr");
+
+		// when
+		try (Recording recording = new Recording()) {
+			recording.enable("org.atteo.dollarbrace.Filter").withThreshold(java.time.Duration.ZERO);
+			recording.enable("org.atteo.dollarbrace.Resolution").withThreshold(java.time.Duration.ZERO);
+			recording.enable("org.atteo.dollarbrace.Resolver").withThreshold(java.time.Duration.ZERO);
+			recording.start();
+			filter.filter("${url}");
+			recording.stop();
+			recording.dump(file);
+		}
+
+		// then
+		List<String> filters = new ArrayList<>();
+		List<String> resolutions = new ArrayList<>();
+		List<String> resolvers = new ArrayList<>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+			switch (event.getEventType().getName()) {
+				case "org.atteo.dollarbrace.Filter":
+					filters.add(event.getString("operation") + ":" + event.getLong("length"));
+					break;
+				case "org.atteo.dollarbrace.Resolution":
+					resolutions.add(event.getString("propertyName") + ":" + event.getInt("depth") + ":"
+							+ event.getBoolean("cacheHit"));
+					break;
+				case "org.atteo.dollarbrace.Resolver":
+					resolvers.add(event.getString("propertyName") + ":"
+							+ event.getClass("resolverClass").getName());
+					break;
+				default:
+			}
+		}
+		assertThat(filters).containsExactly("filter:6");
+		assertThat(resolutions).containsOnly("url:0:false", "host:1:false", "host:1:true");
+		assertThat(resolvers).containsOnly("url:" + SystemPropertyResolver.class.getName(),
+				"url:" + PropertiesPropertyResolver.class.getName(),
+				"host:" + SystemPropertyResolver.class.getName(),
+				"host:" + PropertiesPropertyResolver.class.getName());
+	}
+}